@@ -0,0 +1,95 @@
+package io.github.zap.regularcommands.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Groups the raw arguments of a command into tokens, treating arguments enclosed in double quotes as a single token.
+ * The tokenizer is stateless and therefore safe to use from any thread. Arguments outside of quotes are passed through
+ * as-is, and if no argument opens a quote, the input array itself is returned; new strings are only created for quoted
+ * groups.
+ *
+ * Quoting follows these rules:
+ * <ul>
+ *     <li>A quote is opened by an argument that starts with ", and closed by a later argument that ends with ". The
+ *     arguments in between are joined with single spaces, and the quote characters themselves are removed.</li>
+ *     <li>An argument that both starts and ends with " only opens a quote; it does not close it.</li>
+ *     <li>If a quote is never closed, the arguments starting from the one that opened it are passed through
+ *     unchanged. The exception is a lone " as the final argument, which is discarded.</li>
+ * </ul>
+ */
+final class ArgumentTokenizer {
+    private ArgumentTokenizer() {}
+
+    /**
+     * Tokenizes the given arguments.
+     * @param args The raw arguments, as received from Bukkit
+     * @return The tokens, which may be the same array as args
+     */
+    static @NotNull String[] tokenize(@NotNull String[] args) {
+        int first = 0;
+        while(first < args.length && !opensQuote(args[first])) {
+            first++;
+        }
+
+        if(first == args.length) { //nothing quoted, which is by far the most common case
+            return args;
+        }
+
+        String[] tokens = Arrays.copyOf(args, args.length);
+        int count = first;
+
+        for(int i = first; i < args.length; i++) {
+            String arg = args[i];
+
+            if(!opensQuote(arg)) {
+                tokens[count++] = arg;
+                continue;
+            }
+
+            int close = i + 1;
+            while(close < args.length && !closesQuote(args[close])) {
+                close++;
+            }
+
+            if(close == args.length) { //unclosed quote
+                if(i != args.length - 1 || arg.length() != 1) {
+                    System.arraycopy(args, i, tokens, count, args.length - i);
+                    count += args.length - i;
+                }
+
+                break;
+            }
+
+            tokens[count++] = join(args, i, close);
+            i = close;
+        }
+
+        return count == tokens.length ? tokens : Arrays.copyOf(tokens, count);
+    }
+
+    private static boolean opensQuote(String arg) {
+        return arg.length() > 0 && arg.charAt(0) == '"';
+    }
+
+    private static boolean closesQuote(String arg) {
+        return arg.length() > 0 && arg.charAt(arg.length() - 1) == '"';
+    }
+
+    private static String join(String[] args, int open, int close) {
+        int length = close - open - 2; //separating spaces, minus both quote characters
+        for(int i = open; i <= close; i++) {
+            length += args[i].length();
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(args[open], 1, args[open].length());
+
+        for(int i = open + 1; i < close; i++) {
+            builder.append(' ').append(args[i]);
+        }
+
+        return builder.append(' ').append(args[close], 0, args[close].length() - 1).toString();
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.zap.regularcommands.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Immutable index from an argument count to the forms of a RegularCommand that can accept that many arguments, as
+ * determined by {@link CommandForm#acceptsLength(int)}. Forms are identified by their index in the list the index was
+ * built from.
+ */
+final class ArityIndex {
+    private final BitSet[] byLength;
+    private final BitSet overflow; //forms accepting more arguments than any form has parameters; only varargs
+
+    /**
+     * Builds a new ArityIndex from the given list of forms.
+     * @param forms The forms to index
+     */
+    ArityIndex(@NotNull List<CommandForm<?>> forms) {
+        int maxLength = 0;
+        for(CommandForm<?> form : forms) {
+            maxLength = Math.max(maxLength, form.size());
+        }
+
+        byLength = new BitSet[maxLength + 1];
+        for(int length = 0; length <= maxLength; length++) {
+            byLength[length] = formsAccepting(forms, length);
+        }
+
+        overflow = formsAccepting(forms, maxLength + 1);
+    }
+
+    private static BitSet formsAccepting(List<CommandForm<?>> forms, int length) {
+        BitSet accepting = new BitSet(forms.size());
+        for(int i = 0; i < forms.size(); i++) {
+            if(forms.get(i).acceptsLength(length)) {
+                accepting.set(i);
+            }
+        }
+
+        return accepting;
+    }
+
+    /**
+     * Returns the set of forms that can accept the given number of arguments. The returned BitSet is shared and must
+     * not be modified.
+     * @param length The number of input arguments
+     * @return A BitSet containing the indices of every form that can accept that many arguments
+     */
+    @NotNull BitSet formsAccepting(int length) {
+        return length < byLength.length ? byLength[length] : overflow;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.zap.regularcommands.commands;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves tab completions for the commands of a CommandManager from Paper's {@link AsyncTabCompleteEvent}, so that they
+ * are generated off of the server thread. Requests that cannot be completed asynchronously are left unhandled, and
+ * will reach {@link CommandManager#onTabComplete} on the server thread as usual.
+ */
+final class AsyncCompletionListener implements Listener {
+    private static final class Target {
+        private final RegularCommand command;
+        private final PluginCommand pluginCommand;
+
+        private Target(RegularCommand command, PluginCommand pluginCommand) {
+            this.command = command;
+            this.pluginCommand = pluginCommand;
+        }
+    }
+
+    private final String fallbackPrefix;
+    private final Map<String, Target> targets = new ConcurrentHashMap<>(); //keyed by every label of the command
+
+    /**
+     * Creates a new AsyncCompletionListener.
+     * @param manager The CommandManager whose commands will be completed
+     */
+    AsyncCompletionListener(@NotNull CommandManager manager) {
+        this.fallbackPrefix = manager.getPlugin().getName().toLowerCase(Locale.ROOT) + ":";
+    }
+
+    /**
+     * Makes a command available for asynchronous completion under its name and all of its aliases.
+     * @param command The RegularCommand to complete
+     * @param pluginCommand The PluginCommand it is bound to
+     */
+    void track(@NotNull RegularCommand command, @NotNull PluginCommand pluginCommand) {
+        Target target = new Target(command, pluginCommand);
+        addLabel(pluginCommand.getName(), target);
+
+        for(String alias : pluginCommand.getAliases()) {
+            addLabel(alias, target);
+        }
+    }
+
+    private void addLabel(String label, Target target) {
+        String lowercase = label.toLowerCase(Locale.ROOT);
+        targets.put(lowercase, target);
+        targets.put(fallbackPrefix + lowercase, target);
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if(event.isHandled() || !event.isCommand()) {
+            return;
+        }
+
+        String buffer = event.getBuffer();
+        int labelStart = buffer.startsWith("/") ? 1 : 0;
+        int labelEnd = buffer.indexOf(' ', labelStart);
+
+        if(labelEnd == -1) { //the label itself is still being typed
+            return;
+        }
+
+        Target target = targets.get(buffer.substring(labelStart, labelEnd).toLowerCase(Locale.ROOT));
+        CommandSender sender = event.getSender();
+
+        if(target == null || !target.pluginCommand.testPermissionSilent(sender)) {
+            return;
+        }
+
+        String[] args = buffer.substring(labelEnd + 1).split(" ", -1); //same splitting as Bukkit
+        List<String> completions = target.command.getAsyncCompletions(sender, ArgumentTokenizer.tokenize(args));
+
+        if(completions != null) {
+            event.setCompletions(completions);
+            event.setHandled(true);
+        }
+    }
+}
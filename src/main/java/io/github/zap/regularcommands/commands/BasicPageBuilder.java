@@ -29,18 +29,21 @@ public class BasicPageBuilder implements PageBuilder {
     }
 
     @Override
-    public void addEntry(@NotNull CommandForm<?> form) {
-        Component[] lastPageArray = pages.get(pages.size() - 1);
-        if(lastPageSize >= lastPageArray.length) {
+    public synchronized void addEntry(@NotNull CommandForm<?> form) {
+        Component[] lastPageArray;
+        if(pages.isEmpty() || lastPageSize >= entriesPerPage) {
             pages.add(lastPageArray = new Component[entriesPerPage]);
             lastPageSize = 0;
         }
+        else {
+            lastPageArray = pages.get(pages.size() - 1);
+        }
 
         lastPageArray[lastPageSize++] = form.getUsage();
     }
 
     @Override
-    public @NotNull Component getPage(int index) {
+    public synchronized @NotNull Component getPage(int index) {
         if(index < pages.size()) {
             Component[] pageBody = pages.get(index);
             Component[] fullPage = new Component[pageBody.length + 1];
@@ -55,7 +58,7 @@ public class BasicPageBuilder implements PageBuilder {
     }
 
     @Override
-    public int pageCount() {
+    public synchronized int pageCount() {
         return pages.size();
     }
 }
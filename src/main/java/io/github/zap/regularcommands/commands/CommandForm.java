@@ -2,14 +2,19 @@ package io.github.zap.regularcommands.commands;
 
 import io.github.zap.regularcommands.completer.ArgumentCompleter;
 import io.github.zap.regularcommands.converter.ArgumentConverter;
+import io.github.zap.regularcommands.converter.Arguments;
+import io.github.zap.regularcommands.converter.CaptureConverter;
 import io.github.zap.regularcommands.converter.ConversionResult;
 import io.github.zap.regularcommands.converter.MatchResult;
+import io.github.zap.regularcommands.converter.NumericRange;
 import io.github.zap.regularcommands.converter.Parameter;
-import io.github.zap.regularcommands.util.ArrayUtils;
+import io.github.zap.regularcommands.converter.PrimitiveArgumentConverter;
+import io.github.zap.regularcommands.converter.SenderArgumentConverter;
 import io.github.zap.regularcommands.util.Completers;
 import io.github.zap.regularcommands.validator.CommandValidator;
 import net.kyori.adventure.text.Component;
 import org.apache.commons.lang.StringUtils;
+import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -45,15 +50,22 @@ public abstract class CommandForm<T> implements Iterable<Parameter> {
 
     private final boolean vararg;
     private final boolean optional;
+    private final int defaultedLength;
+    private final boolean emptyVarargMatches;
+
+    //MatchResults are immutable, so the ones that carry no per-input data are shared
+    private final MatchResult noMatch;
+    private final MatchResult denied;
+    private final MatchResult emptyMatch;
 
     /**
      * Creates a CommandForm.
      *
      * Each CommandForm can be said to have a 'signature' that is defined by the provided Parameter array. Two
      * different CommandForms can have 'signature overlap' where both can be executed given one set of inputs.
-     * In this case, both forms will be executed. The order in which they are run depends on the order that they were
-     * added to their RegularCommand instance - command forms added later will always be executed after forms added
-     * earlier.
+     * In this case, both forms will be executed, unless the command uses {@link DispatchMode#FIRST}. The order in which
+     * they are run depends first on their priority, then on the order that they were added to their RegularCommand
+     * instance - command forms of equal priority added later will always be executed after forms added earlier.
      *
      * The Parameter array is also validated to ensure some basic assumptions can be made about the signature. 'vararg'
      * parameters cannot appear before non-vararg parameters, optional and vararg parameters cannot be mixed, and finally
@@ -106,6 +118,24 @@ public abstract class CommandForm<T> implements Iterable<Parameter> {
         requiredLength = reqLen; //length of all non-optional, non-vararg parameters
         this.vararg = vararg;
         this.optional = optional;
+
+        int defaulted = parameters.length;
+        while(optional && defaulted > reqLen) { //default values are fixed, so we can test them ahead of time
+            Parameter parameter = parameters[defaulted - 1];
+
+            if(matchFails(parameter.getDefaultValue(), parameter)) {
+                break;
+            }
+
+            defaulted--;
+        }
+
+        defaultedLength = defaulted;
+        emptyVarargMatches = vararg && !matchFails(StringUtils.EMPTY, parameters[parameters.length - 1]);
+
+        noMatch = new MatchResult(this, true, false, null);
+        denied = new MatchResult(this, false, false, null);
+        emptyMatch = parameters.length == 0 ? new ConvertedMatch(this, Arguments.EMPTY) : null;
     }
 
     /**
@@ -147,34 +177,115 @@ public abstract class CommandForm<T> implements Iterable<Parameter> {
      */
     public boolean isVararg() { return vararg; }
 
+    /**
+     * Returns the priority of this form. When input matches more than one form of a command, forms with higher
+     * priority are considered first; see {@link DispatchMode}.
+     * @return The priority of this form, which is 0 unless overridden
+     */
+    public int getPriority() {
+        return 0;
+    }
+
+    /**
+     * Returns the ExecutionMode of this form, which determines whether its validator and
+     * {@link CommandForm#execute(Context, Object[], Object)} are run on the server thread or asynchronously.
+     * @return The ExecutionMode of this form, which is {@link ExecutionMode#SYNC} unless overridden
+     */
+    public @NotNull ExecutionMode getExecutionMode() {
+        return ExecutionMode.SYNC;
+    }
+
+    /**
+     * Returns the RateLimiter that limits how often each sender may use this form. Implementations should return the
+     * same instance every time, as the RateLimiter keeps track of each sender's usage.
+     * @return The RateLimiter of this form, which is null (no limit) unless overridden
+     */
+    public @Nullable RateLimiter getRateLimiter() {
+        return null;
+    }
+
+    /**
+     * Determines if an argument array of the given length could possibly match this form. This takes the number of
+     * required parameters into account, as well as whether the default values of any omitted optional parameters (or
+     * an empty vararg) would match.
+     * @param length The number of input arguments
+     * @return true if an argument array of this length may match this form, false if it never can
+     */
+    public boolean acceptsLength(int length) {
+        if(length == 0) {
+            return parameters.length == 0;
+        }
+
+        if(length < requiredLength || length > parameters.length && !vararg) {
+            return false;
+        }
+
+        if(vararg) {
+            return length >= parameters.length || emptyVarargMatches;
+        }
+
+        return length >= defaultedLength;
+    }
+
     /**
      * Attempts to match the provided argument array with this CommandForm.
      * @param args The complete input argument array
      * @return A MatchResult argument containing information about the match attempt
      */
     public @NotNull MatchResult matches(String[] args) {
-        if(args.length == 0) { //optimization for zero-length parameters
-            boolean matches = parameters.length == 0;
-            return new MatchResult(this, true, matches, matches ? ConversionResult.of(true,
-                    ArrayUtils.EMPTY_OBJECT_ARRAY, null) : null);
+        if(!structurallyMatches(args)) {
+            return noMatch;
         }
 
+        return convertMatched(args, null, null);
+    }
+
+    /**
+     * Performs the first, cheap phase of matching: tests the length of the argument array and every argument against
+     * its parameter, without running any converters.
+     * @param args The complete input argument array
+     * @return true if every argument matches, in which case only conversion remains; false otherwise
+     */
+    public boolean structurallyMatches(@NotNull String[] args) {
         //optimization, don't bother testing if we are above or below the required length for this form
-        if(args.length < requiredLength || args.length > parameters.length && !vararg) {
-            return new MatchResult(this, true, false, null);
+        if(!acceptsLength(args.length)) {
+            return false;
+        }
+
+        for(int i = 0; i < args.length; i++) {
+            if(matchFails(args[i], parameters[Math.min(i, parameters.length - 1)])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Performs the second phase of matching, converting the provided argument array. The arguments must already be
+     * known to match this form (see {@link CommandForm#structurallyMatches(String[])}). Parameters with a
+     * {@link CaptureConverter} reuse the match made while testing their argument, and are never cached.
+     * @param args The complete input argument array
+     * @param sender The sender passed to every {@link SenderArgumentConverter}, or null if it is not known
+     * @param cache Stores conversions that may be shared with other forms during the same dispatch, or null
+     * @return A MatchResult argument containing the result of conversion
+     */
+    @NotNull MatchResult convertMatched(@NotNull String[] args, @Nullable CommandSender sender,
+                                        @Nullable ConversionCache cache) {
+        if(args.length == 0) { //optimization for zero-length parameters
+            return emptyMatch;
         }
 
         int iters = Math.max(args.length, parameters.length);
-        Object[] result = new Object[iters];
+        Arguments result = new Arguments(iters);
 
         for(int i = 0; i < iters; i++)
         {
             Parameter parameter = parameters[Math.min(i, parameters.length - 1)];
-            Parameter.ParameterType parameterType = parameter.getType();
             String input;
 
             if(i >= args.length) {
-                if(parameterType == Parameter.ParameterType.OPTIONAL) {
+                if(parameter.getType() == Parameter.ParameterType.OPTIONAL) {
                     input = parameter.getDefaultValue(); //parameter is optional and argument is not supplied
                 }
                 else {
@@ -185,30 +296,76 @@ public abstract class CommandForm<T> implements Iterable<Parameter> {
                 input = args[i]; //take user argument when possible
             }
 
-            if(matchFails(input, parameter)) {
-                return new MatchResult(this, true, false, null);
+            CaptureConverter<?> captureConverter = parameter.getCaptureConverter();
+            if(captureConverter != null) { //groups are usually left over from matching, so no rescan
+                java.util.regex.MatchResult match = parameter.matchGroups(input);
+                if(match == null) {
+                    return noMatch;
+                }
+
+                ConversionResult<?> conversionResult = captureConverter.convertMatch(this, match);
+                if(!conversionResult.isValid()) {
+                    //noinspection unchecked
+                    return new MatchResult(this, true, true, (ConversionResult<Object[]>)conversionResult);
+                }
+
+                result.set(i, conversionResult.getConversion());
+                continue;
             }
 
             ArgumentConverter<?> converter = parameter.getConverter();
-            ConversionResult<?> conversionResult;
+            if(converter == null) { //no need to wrap the input in a ConversionResult
+                result.set(i, input);
+                continue;
+            }
 
-            if(converter == null) {
-                conversionResult = ConversionResult.of(true, input, null);
+            if(converter instanceof PrimitiveArgumentConverter) { //converts straight into result, without boxing
+                Component errorMessage = ((PrimitiveArgumentConverter<?>)converter).convertInto(this, input, result, i);
+
+                if(errorMessage != null) {
+                    return new MatchResult(this, true, true, ConversionResult.of(false, null, errorMessage));
+                }
+
+                continue;
             }
-            else {
-                conversionResult = parameter.getConverter().convert(this, input);
+
+            ConversionResult<?> conversionResult = cache == null ? null : cache.get(converter, input);
+            if(conversionResult == null) {
+                conversionResult = converter instanceof SenderArgumentConverter ?
+                        ((SenderArgumentConverter<?>)converter).convert(this, sender, input) :
+                        converter.convert(this, input);
+
+                if(cache != null) {
+                    cache.put(converter, input, conversionResult);
+                }
             }
 
             if(conversionResult.isValid()) { //successful conversion
-                result[i] = conversionResult.getConversion();
+                result.set(i, conversionResult.getConversion());
             }
-            else { //failed conversion
-                return new MatchResult(this, true, true, ConversionResult.of(false,
-                        null, conversionResult.getErrorMessage()));
+            else { //failed conversion; invalid results hold no conversion, so the original can be reused
+                //noinspection unchecked
+                return new MatchResult(this, true, true, (ConversionResult<Object[]>)conversionResult);
             }
         }
 
-        return new MatchResult(this, true,true, ConversionResult.of(true, result, null));
+        return new ConvertedMatch(this, result);
+    }
+
+    /**
+     * Returns a shared MatchResult indicating that the input does not match this form.
+     * @return A MatchResult that does not match
+     */
+    @NotNull MatchResult noMatch() {
+        return noMatch;
+    }
+
+    /**
+     * Returns a shared MatchResult indicating that the sender does not have permission to use this form.
+     * @return A MatchResult without permission
+     */
+    @NotNull MatchResult denied() {
+        return denied;
     }
 
     /**
@@ -220,7 +377,7 @@ public abstract class CommandForm<T> implements Iterable<Parameter> {
      * @return The match score for the provided arguments
      */
     public int matchScore(@NotNull String[] args) {
-        if(parameters.length == 0 || !vararg && args.length > requiredLength) {
+        if(!canComplete(args.length)) {
             return -1;
         }
 
@@ -242,13 +399,70 @@ public abstract class CommandForm<T> implements Iterable<Parameter> {
         return i;
     }
 
-    private boolean matchFails(String argument, Parameter parameter) {
-        if(parameter.getType() == Parameter.ParameterType.SIMPLE) {
-            return !parameter.getMatch().equals(argument);
+    /**
+     * Determines if an argument array of the given length, whose last element may be incomplete, can be tab-completed
+     * by this form. This performs the length checks of {@link CommandForm#matchScore(String[])} without testing any
+     * arguments.
+     * @param length The number of input arguments
+     * @return true if an argument array of this length may be completed, false otherwise
+     */
+    boolean canComplete(int length) {
+        return parameters.length != 0 && (vararg || length <= requiredLength);
+    }
+
+    /**
+     * Determines if there is provably some input that would match both this form and the other form. Two parameters
+     * are known to overlap if they are equal literals, if a literal is accepted by the other parameter's matcher, or
+     * if they use the same pattern or overlapping numeric ranges. Parameters using different patterns are assumed not
+     * to overlap, so this method may return false for forms that are in fact ambiguous.
+     * @param other The form to compare against
+     * @return true if the two forms are known to be ambiguous, false otherwise
+     */
+    boolean isAmbiguousWith(@NotNull CommandForm<?> other) {
+        int maxLength = Math.max(parameters.length, other.parameters.length) + 1;
+
+        for(int length = 0; length <= maxLength; length++) {
+            if(acceptsLength(length) && other.acceptsLength(length)) {
+                boolean overlaps = true;
+
+                for(int i = 0; i < length && overlaps; i++) {
+                    overlaps = parametersOverlap(parameters[Math.min(i, parameters.length - 1)],
+                            other.parameters[Math.min(i, other.parameters.length - 1)]);
+                }
+
+                if(overlaps) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean parametersOverlap(Parameter first, Parameter second) {
+        boolean firstSimple = first.getType() == Parameter.ParameterType.SIMPLE;
+        boolean secondSimple = second.getType() == Parameter.ParameterType.SIMPLE;
+
+        if(firstSimple) {
+            return second.getMatcher().matches(first.getMatch());
         }
-        else {
-            return !parameter.getPattern().matcher(argument).matches();
+        else if(secondSimple) {
+            return first.getMatcher().matches(second.getMatch());
         }
+
+        NumericRange firstRange = first.getRange();
+        NumericRange secondRange = second.getRange();
+
+        if(firstRange != null || secondRange != null) {
+            return firstRange != null && secondRange != null && firstRange.overlaps(secondRange);
+        }
+
+        return first == second || first.getPattern().flags() == second.getPattern().flags() &&
+                first.getPattern().pattern().equals(second.getPattern().pattern());
+    }
+
+    private boolean matchFails(String argument, Parameter parameter) {
+        return !parameter.getMatcher().matches(argument);
     }
 
     /**
@@ -305,7 +519,9 @@ public abstract class CommandForm<T> implements Iterable<Parameter> {
 
     /**
      * Runs the command after the conversion and validation steps have been performed. The Object[] array passed to
-     * this method will always be the same as those passed to getValidator.
+     * this method will always be the same as those passed to getValidator. Depending on
+     * {@link CommandForm#getExecutionMode()}, this method may be called asynchronously; the returned message is always
+     * sent from the server thread.
      * @param context The current context
      * @param arguments An array of converted values, whose types correspond to any converters defined within the
      *                  parameters array
@@ -313,4 +529,29 @@ public abstract class CommandForm<T> implements Iterable<Parameter> {
      * @return A message that will be displayed to the player, and formatted if getStylizer() doesn't return null
      */
     public abstract @Nullable Component execute(Context context, Object[] arguments, T data);
-}
\ No newline at end of file
+
+    /**
+     * Gets the validator for the given unboxed arguments. Dispatch calls this method rather than
+     * {@link CommandForm#getValidator(Context, Object[])}, which it calls after boxing the arguments unless overridden
+     * by {@link PrimitiveCommandForm}.
+     * @param context The current context
+     * @param arguments The converted values
+     * @return The validator used to determine if the command should execute
+     */
+    @Nullable CommandValidator<T, ?> validatorFor(Context context, Arguments arguments) {
+        return getValidator(context, arguments.toArray());
+    }
+
+    /**
+     * Runs the command with the given unboxed arguments. Dispatch calls this method rather than
+     * {@link CommandForm#execute(Context, Object[], Object)}, which it calls after boxing the arguments unless
+     * overridden by {@link PrimitiveCommandForm}.
+     * @param context The current context
+     * @param arguments The converted values
+     * @param data A data object, which if non-null was generated by this form's validator
+     * @return A message that will be displayed to the player
+     */
+    @Nullable Component executeWith(Context context, Arguments arguments, T data) {
+        return execute(context, arguments.toArray(), data);
+    }
+}
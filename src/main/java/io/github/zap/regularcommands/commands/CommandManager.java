@@ -1,25 +1,35 @@
 package io.github.zap.regularcommands.commands;
 
-import io.github.zap.regularcommands.converter.ConversionResult;
+import io.github.zap.regularcommands.converter.Arguments;
 import io.github.zap.regularcommands.converter.MatchResult;
-import io.github.zap.regularcommands.util.ArrayUtils;
+import io.github.zap.regularcommands.util.ServerLookup;
 import io.github.zap.regularcommands.validator.CommandValidator;
+import io.github.zap.regularcommands.validator.ValidationCache;
 import io.github.zap.regularcommands.validator.ValidationResult;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.translation.GlobalTranslator;
 import net.kyori.adventure.translation.TranslationRegistry;
-import org.apache.commons.lang.StringUtils;
+import org.bukkit.Server;
 import org.bukkit.command.*;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * This class keeps track of all registered commands and includes some utility functions.
+ * This class keeps track of all registered commands and includes some utility functions. Commands may be registered,
+ * and their forms added or replaced, while other threads dispatch or complete commands: the registry is published as
+ * an immutable snapshot, so lookups never block.
  */
 public class CommandManager implements CommandExecutor, TabCompleter {
     private static final Key TRANSLATION_REGISTRY_KEY
@@ -29,28 +39,44 @@ public class CommandManager implements CommandExecutor, TabCompleter {
 
     private class SimpleCommand extends RegularCommand {
         private SimpleCommand(String name) {
-            super(CommandManager.this, name, new BasicPageBuilder());
+            super(CommandManager.this, name, BasicPageBuilder::new, dispatchMode);
         }
     }
 
     private final Plugin plugin;
     private final TranslationRegistry translationRegistry;
     private final Logger logger;
-    private final Map<String, RegularCommand> commands;
-
-    private final StringBuilder BUFFER = new StringBuilder(); //used for internal string parsing
+    private volatile Map<String, RegularCommand> commands = Collections.emptyMap(); //replaced, never modified
+    private final DispatchMode dispatchMode;
+    private volatile Executor executor = ForkJoinPool.commonPool();
+    private AsyncCompletionListener asyncCompletionListener;
+    private volatile int completionLimit = Integer.MAX_VALUE;
+    private final PermissionCache permissionCache = new PermissionCache(0); //disabled until a duration is set
+    private boolean permissionInvalidatorRegistered;
 
     /**
      * Creates a new CommandManager and associates it with the specified plugin.
      * @param plugin The associated plugin
+     * @param dispatchMode The DispatchMode used by commands created through
+     *                     {@link CommandManager#registerForm(String, CommandForm)}
      */
-    public CommandManager(@NotNull Plugin plugin, @NotNull GlobalTranslator translator) {
+    public CommandManager(@NotNull Plugin plugin, @NotNull GlobalTranslator translator,
+                          @NotNull DispatchMode dispatchMode) {
         this.plugin = Objects.requireNonNull(plugin, "plugin cannot be null");
         this.translationRegistry = TranslationRegistry.create(TRANSLATION_REGISTRY_KEY);
         translationRegistry.defaultLocale(DEFAULT_LOCALE);
         translator.addSource(translationRegistry);
         logger = plugin.getLogger();
-        commands = new HashMap<>();
+        this.dispatchMode = Objects.requireNonNull(dispatchMode, "dispatchMode cannot be null");
+    }
+
+    /**
+     * Creates a new CommandManager and associates it with the specified plugin. Commands created through
+     * {@link CommandManager#registerForm(String, CommandForm)} will execute every matching form.
+     * @param plugin The associated plugin
+     */
+    public CommandManager(@NotNull Plugin plugin, @NotNull GlobalTranslator translator) {
+        this(plugin, translator, DispatchMode.ALL);
     }
 
     /**
@@ -68,18 +94,24 @@ public class CommandManager implements CommandExecutor, TabCompleter {
     }
 
     /**
-     * Registers a RegularCommand with this manager.
+     * Registers a RegularCommand with this manager. This also installs the indexes of {@link ServerLookup}, which are
+     * used by the built-in player and world converters, if they are not installed already.
      * @param command The RegularCommand to register
      */
-    public void registerCommand(@NotNull RegularCommand command) {
+    public synchronized void registerCommand(@NotNull RegularCommand command) {
         String name = Objects.requireNonNull(command, "command cannot be null").getName();
 
         if(!commands.containsKey(name)) {
-            commands.put(name, command);
             PluginCommand pluginCommand = Objects.requireNonNull(plugin.getServer().getPluginCommand(command.getName()),
                     "command must also be defined in plugin.yml");
+            ServerLookup.install(plugin); //used by the built-in player and world converters; only installed once
+            publish(command);
             pluginCommand.setExecutor(this);
             pluginCommand.setTabCompleter(this);
+
+            if(asyncCompletionListener != null) {
+                asyncCompletionListener.track(command, pluginCommand);
+            }
         }
         else {
             throw new IllegalArgumentException("a command with that name has already been registered");
@@ -125,6 +157,92 @@ public class CommandManager implements CommandExecutor, TabCompleter {
      */
     public @NotNull Logger getLogger() { return logger; }
 
+    /**
+     * Returns the DispatchMode used by commands created through {@link CommandManager#registerForm(String,
+     * CommandForm)}.
+     * @return The default DispatchMode of this manager
+     */
+    public @NotNull DispatchMode getDispatchMode() { return dispatchMode; }
+
+    /**
+     * Returns the maximum number of tab completions returned for a single request.
+     * @return The completion limit, which is Integer.MAX_VALUE (no limit) by default
+     */
+    public int getCompletionLimit() { return completionLimit; }
+
+    /**
+     * Sets the maximum number of tab completions returned for a single request. Once this many completions have been
+     * found, no further completers are run. Since clients only display a limited number of suggestions at once,
+     * setting this can save a lot of work for commands with large or expensive completers.
+     * @param completionLimit The completion limit
+     */
+    public void setCompletionLimit(int completionLimit) {
+        if(completionLimit < 0) {
+            throw new IllegalArgumentException("completionLimit cannot be negative");
+        }
+
+        this.completionLimit = completionLimit;
+    }
+
+    /**
+     * Sets how long the result of a permission check is remembered for each sender. Permission checks are not cached
+     * across dispatches unless this method is called with a positive duration. Once enabled, a cached result is
+     * discarded when the player quits or changes worlds, but other changes to a sender's permissions or operator
+     * status (ex. /deop) are only noticed once the duration has passed, unless
+     * {@link CommandManager#invalidatePermissions(CommandSender)} is called.
+     * @param duration How long results are remembered, or {@link Duration#ZERO} to disable caching
+     */
+    public synchronized void setPermissionCacheDuration(@NotNull Duration duration) {
+        Objects.requireNonNull(duration, "duration cannot be null");
+
+        if(duration.isNegative()) {
+            throw new IllegalArgumentException("duration cannot be negative");
+        }
+
+        if(!duration.isZero() && !permissionInvalidatorRegistered) {
+            plugin.getServer().getPluginManager().registerEvents(permissionCache.invalidator(), plugin);
+            permissionInvalidatorRegistered = true;
+        }
+
+        permissionCache.setDuration(duration.toNanos());
+    }
+
+    /**
+     * Discards the cached permissions of the given sender. This should be called whenever the sender's permissions or
+     * operator status are changed, for example by a permissions plugin.
+     * @param sender The sender whose permissions changed
+     */
+    public void invalidatePermissions(@NotNull CommandSender sender) {
+        permissionCache.invalidate(Objects.requireNonNull(sender, "sender cannot be null"));
+    }
+
+    /**
+     * Discards the cached permissions of every sender.
+     */
+    public void invalidatePermissions() {
+        permissionCache.invalidateAll();
+    }
+
+    @NotNull PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    /**
+     * Returns the Executor used to run forms whose {@link ExecutionMode} is not {@link ExecutionMode#SYNC}.
+     * @return The executor used for asynchronous forms
+     */
+    public @NotNull Executor getExecutor() { return executor; }
+
+    /**
+     * Sets the Executor used to run forms whose {@link ExecutionMode} is not {@link ExecutionMode#SYNC}. This is
+     * {@link ForkJoinPool#commonPool()} by default. Forms that block for long periods of time should use an executor
+     * better suited to blocking work, such as a bounded thread pool or one that creates a virtual thread per task.
+     * @param executor The executor to use for asynchronous forms
+     */
+    public void setExecutor(@NotNull Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+    }
+
     /**
      * Registers a CommandForm with this CommandManager. A default implementation of RegularCommand will be created if
      * one with the given name is absent; if the name exists, the form will be added to the already-present command.
@@ -132,8 +250,100 @@ public class CommandManager implements CommandExecutor, TabCompleter {
      * @param name The name of the command to register the form under
      * @param form The CommandForm instance to register
      */
-    public void registerForm(@NotNull String name, @NotNull CommandForm<?> form) {
-        commands.computeIfAbsent(name, SimpleCommand::new).addForm(form);
+    public synchronized void registerForm(@NotNull String name, @NotNull CommandForm<?> form) {
+        RegularCommand command = commands.get(name);
+
+        if(command == null) {
+            command = new SimpleCommand(name);
+            publish(command);
+            trackForAsyncCompletion(command);
+        }
+
+        command.addForm(form);
+    }
+
+    /**
+     * Registers several CommandForms under the same command, like
+     * {@link CommandManager#registerForm(String, CommandForm)}, but building the command's dispatch indices only once.
+     * This should be preferred when registering many forms at once.
+     * @param name The name of the command to register the forms under
+     * @param forms The CommandForm instances to register
+     * @throws IllegalArgumentException if a form is ambiguous with another form; in this case, none are registered
+     */
+    public synchronized void registerForms(@NotNull String name, @NotNull Collection<? extends CommandForm<?>> forms) {
+        RegularCommand command = commands.get(name);
+
+        if(command == null) {
+            command = new SimpleCommand(name);
+            publish(command);
+            trackForAsyncCompletion(command);
+        }
+
+        command.addForms(forms);
+    }
+
+    /**
+     * Atomically replaces the forms of the command with the given name. See
+     * {@link RegularCommand#replaceForms(Collection)}.
+     * @param name The name of the command
+     * @param forms The new forms of the command
+     * @throws IllegalArgumentException if no command with the given name has been registered, or if a form is
+     * ambiguous with another form
+     * @throws IllegalStateException if the command was created with a PageBuilder instance rather than a supplier
+     */
+    public void replaceForms(@NotNull String name, @NotNull Collection<? extends CommandForm<?>> forms) {
+        RegularCommand command = commands.get(name);
+
+        if(command == null) {
+            throw new IllegalArgumentException("a command with that name has not been registered");
+        }
+
+        command.replaceForms(forms);
+    }
+
+    private void publish(RegularCommand command) {
+        Map<String, RegularCommand> newCommands = new HashMap<>(commands);
+        newCommands.put(command.getName(), command);
+        commands = Collections.unmodifiableMap(newCommands);
+    }
+
+    /**
+     * Enables asynchronous tab completion using Paper's AsyncTabCompleteEvent. Once enabled, completion requests for
+     * commands registered with this manager are served off of the server thread, as long as every completer involved
+     * is {@link io.github.zap.regularcommands.completer.ArgumentCompleter#isAsyncSafe()}; other requests are still
+     * completed on the server thread. Calling this method more than once has no effect. This method should be called
+     * from the server thread.
+     * @return true if asynchronous completion is enabled, false if the server does not support it
+     */
+    public synchronized boolean enableAsyncCompletion() {
+        if(asyncCompletionListener != null) {
+            return true;
+        }
+
+        try {
+            Class.forName("com.destroystokyo.paper.event.server.AsyncTabCompleteEvent");
+        }
+        catch (ClassNotFoundException e) { //not running on Paper
+            return false;
+        }
+
+        asyncCompletionListener = new AsyncCompletionListener(this);
+        for(RegularCommand command : commands.values()) {
+            trackForAsyncCompletion(command);
+        }
+
+        plugin.getServer().getPluginManager().registerEvents(asyncCompletionListener, plugin);
+        return true;
+    }
+
+    private void trackForAsyncCompletion(RegularCommand command) {
+        if(asyncCompletionListener != null) {
+            PluginCommand pluginCommand = plugin.getServer().getPluginCommand(command.getName());
+
+            if(pluginCommand != null) {
+                asyncCompletionListener.track(command, pluginCommand);
+            }
+        }
     }
 
     @Override
@@ -142,23 +352,45 @@ public class CommandManager implements CommandExecutor, TabCompleter {
         RegularCommand regularCommand = getCommand(command.getName());
 
         if(regularCommand != null) {
-            List<MatchResult> matches = regularCommand.getMatches(parse(args), commandSender); //get all matches
+            RateLimiter rateLimiter = regularCommand.getRateLimiter();
+            long wait = rateLimiter == null ? 0 : rateLimiter.tryAcquire(commandSender);
+
+            if(wait > 0) { //reject spam before doing any work
+                commandSender.sendMessage(RateLimiter.limitedMessage(wait));
+                return true;
+            }
+
+            String[] tokens = ArgumentTokenizer.tokenize(args);
+            List<MatchResult> matches = regularCommand.getMatches(tokens, commandSender); //get all matches
 
             if(matches.size() > 0) {
+                //cacheable validators shared by several matching forms only run once
+                ValidationCache validationCache = matches.size() > 1 ? new ValidationCache() : null;
+
                 for(MatchResult match : matches) { //loop all matches
                     if(match.hasPermission()) { //check permissions match first
-                        ConversionResult<Object[]> conversionResult = match.getConversionResult();
-
-                        if(conversionResult.isValid()) { //conversion was a success
+                        if(ConvertedMatch.isConverted(match)) { //conversion was a success
                             CommandForm<?> form = match.getForm();
-                            Component output = validateAndExecute(form, commandSender, conversionResult.getConversion());
+                            RateLimiter formLimiter = form.getRateLimiter();
+                            long formWait = formLimiter == null ? 0 : formLimiter.tryAcquire(commandSender);
+
+                            if(formWait > 0) { //only forms that are about to run use a permit
+                                commandSender.sendMessage(RateLimiter.limitedMessage(formWait));
+                                continue;
+                            }
 
-                            if(output != null && !output.equals(Component.empty())) { //we have something to display
-                                commandSender.sendMessage(output);
+                            Arguments arguments = ConvertedMatch.argumentsOf(match);
+                            if(form.getExecutionMode() == ExecutionMode.SYNC) { //runs here, so no future is needed
+                                Context context = new Context(form, commandSender, validationCache);
+                                sendOutput(commandSender, form, validateAndExecute(form, context, arguments), null);
+                            }
+                            else {
+                                executeForm(form, commandSender, arguments, validationCache).whenComplete(
+                                        (output, error) -> sendOutput(commandSender, form, output, error));
                             }
                         }
                         else { //conversion error
-                            commandSender.sendMessage(conversionResult.getErrorMessage());
+                            commandSender.sendMessage(match.getConversionResult().getErrorMessage());
                         }
                     }
                     else { //sender does not have the required permissions
@@ -179,88 +411,114 @@ public class CommandManager implements CommandExecutor, TabCompleter {
         return true;
     }
 
-    private <T> Component validateAndExecute(CommandForm<T> form, CommandSender sender, Object[] args) {
-        Context context = new Context(form, sender);
-        CommandValidator<T, ?> validator = form.getValidator(context, args);
+    /**
+     * Validates and executes the given form according to its {@link ExecutionMode}. If the form executes
+     * synchronously, the returned future is already complete, and any exception thrown by the validator or the form
+     * propagates to the caller. Otherwise, the future completes on this manager's executor. If validation fails, the
+     * future completes with the validator's error message.
+     * @param form The form to execute
+     * @param sender The CommandSender executing the form
+     * @param arguments The converted arguments
+     * @param <T> The type of data produced by the form's validator
+     * @return A future that completes with the output of the form, which may be null
+     */
+    public <T> @NotNull CompletableFuture<Component> executeForm(@NotNull CommandForm<T> form,
+                                                                 @NotNull CommandSender sender,
+                                                                 @NotNull Arguments arguments) {
+        return executeForm(form, sender, arguments, null);
+    }
+
+    /**
+     * Works like {@link CommandManager#executeForm(CommandForm, CommandSender, Arguments)}, but memoizes cacheable
+     * validators using the given ValidationCache. Forms that are executed for the same dispatch should share one cache,
+     * so that cacheable validators they have in common only run once. The cache is not used by
+     * {@link ExecutionMode#ASYNC} forms, whose validators run on this manager's executor rather than the server thread.
+     * @param form The form to execute
+     * @param sender The CommandSender executing the form
+     * @param arguments The converted arguments
+     * @param validationCache The ValidationCache of the current dispatch, or null if validators should not be memoized
+     * @param <T> The type of data produced by the form's validator
+     * @return A future that completes with the output of the form, which may be null
+     */
+    public <T> @NotNull CompletableFuture<Component> executeForm(@NotNull CommandForm<T> form,
+                                                                 @NotNull CommandSender sender,
+                                                                 @NotNull Arguments arguments,
+                                                                 @Nullable ValidationCache validationCache) {
+        Objects.requireNonNull(form, "form cannot be null");
+        Objects.requireNonNull(sender, "sender cannot be null");
+        Objects.requireNonNull(arguments, "arguments cannot be null");
+
+        ExecutionMode mode = form.getExecutionMode();
+        //only validators running on the server thread share results, so it never waits for the executor
+        Context context = new Context(form, sender, mode == ExecutionMode.ASYNC ? null : validationCache);
+        if(mode == ExecutionMode.ASYNC) {
+            return CompletableFuture.supplyAsync(() -> validateAndExecute(form, context, arguments, false), executor)
+                    .thenCompose(Function.identity());
+        }
 
-        if(validator != null) {
-            ValidationResult<T> result = validator.validate(context, args);
+        return validateAndExecute(form, context, arguments, mode == ExecutionMode.EXECUTE_ASYNC);
+    }
 
-            if(result.isValid()) {
-                return form.execute(context, args, result.getData());
-            }
-            else {
-                sender.sendMessage(result.getErrorMessage());
-            }
+    private <T> CompletableFuture<Component> validateAndExecute(CommandForm<T> form, Context context,
+                                                                Arguments args, boolean executeAsync) {
+        if(!executeAsync) {
+            return CompletableFuture.completedFuture(validateAndExecute(form, context, args));
         }
-        else {
-            return form.execute(context, args, null);
+
+        ValidationResult<T> result = validate(form, context, args);
+        if(result != null && !result.isValid()) {
+            return CompletableFuture.completedFuture(result.getErrorMessage());
         }
 
-        return null;
+        T data = result == null ? null : result.getData();
+        return CompletableFuture.supplyAsync(() -> form.executeWith(context, args, data), executor);
     }
 
-    @Override
-    public List<String> onTabComplete(@NotNull CommandSender commandSender, @NotNull Command command,
-                                      @NotNull String label, @NotNull String[] args) {
-        if(args.length > 0) { //possibly redundant, needs testing
-            RegularCommand regularCommand = commands.get(command.getName());
+    private <T> Component validateAndExecute(CommandForm<T> form, Context context, Arguments args) {
+        ValidationResult<T> result = validate(form, context, args);
 
-            if(regularCommand != null) {
-                return regularCommand.getCompletions(commandSender, parse(args));
-            }
+        if(result != null && !result.isValid()) {
+            return result.getErrorMessage();
         }
 
-        return new ArrayList<>();
+        return form.executeWith(context, args, result == null ? null : result.getData());
     }
 
-    private String[] parse(String[] args) {
-        BUFFER.setLength(0);
-
-        List<String> result = new ArrayList<>();
-        boolean quotation = false;
-        int lastOpeningQuoteResult = 0;
-        int lastOpeningQuoteArg = 0;
-        int resultIndex = 0;
-        int argIndex = 0;
-        for(String arg : args) {
-            if(quotation) {
-                BUFFER.append(' ');
-
-                if(arg.endsWith("\"")) {
-                    quotation = false;
-                    BUFFER.append(arg.length() == 1 ? StringUtils.EMPTY : arg.substring(0, arg.length() - 1));
-                    result.add(BUFFER.toString());
-                    BUFFER.setLength(0);
-                    resultIndex++;
-                }
-                else {
-                    BUFFER.append(arg);
-                }
+    private <T> ValidationResult<T> validate(CommandForm<T> form, Context context, Arguments args) {
+        CommandValidator<T, ?> validator = form.validatorFor(context, args);
+
+        //arguments are only boxed for forms and steps that are not primitive
+        return validator == null ? null : validator.validate(context, args);
+    }
+
+    private void sendOutput(CommandSender sender, CommandForm<?> form, Component output, Throwable error) {
+        if(error != null) {
+            getLogger().log(Level.SEVERE, String.format("An exception occurred while asynchronously executing " +
+                    "a form of class '%s' for CommandSender '%s'", form.getClass().getName(), sender.getName()), error);
+        }
+        else if(output != null && !output.equals(Component.empty())) { //we have something to display
+            Server server = plugin.getServer();
+
+            if(server.isPrimaryThread()) {
+                sender.sendMessage(output);
             }
-            else {
-                if(arg.startsWith("\"")) {
-                    quotation = true;
-                    BUFFER.append(arg.length() == 1 ? StringUtils.EMPTY : arg.substring(1));
-                    lastOpeningQuoteResult = resultIndex;
-                    lastOpeningQuoteArg = argIndex;
-                }
-                else {
-                    result.add(arg);
-                    resultIndex++;
-                }
+            else if(plugin.isEnabled()) { //scheduling tasks for disabled plugins is not allowed
+                server.getScheduler().runTask(plugin, () -> sender.sendMessage(output));
             }
-            argIndex++;
         }
+    }
 
-        if(BUFFER.length() > 0) {
-            if (result.size() > lastOpeningQuoteResult) {
-                result.subList(lastOpeningQuoteResult, result.size()).clear();
-            }
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender commandSender, @NotNull Command command,
+                                      @NotNull String label, @NotNull String[] args) {
+        if(args.length > 0) { //possibly redundant, needs testing
+            RegularCommand regularCommand = commands.get(command.getName());
 
-            result.addAll(Arrays.asList(args).subList(lastOpeningQuoteArg, args.length));
+            if(regularCommand != null) {
+                return regularCommand.getCompletions(commandSender, ArgumentTokenizer.tokenize(args));
+            }
         }
 
-        return result.toArray(ArrayUtils.EMPTY_STRING_ARRAY);
+        return new ArrayList<>();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package io.github.zap.regularcommands.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Remembers which forms of a RegularCommand were still viable after each argument the last time a particular sender
+ * requested tab completions. Since completions are requested on every keystroke, consecutive requests usually share
+ * all of their leading arguments, and only the arguments that changed need to be tested again.
+ */
+final class CompletionState {
+    private FormTable table;
+    private String[] tokens = new String[0];
+    private BitSet[] alive = new BitSet[0]; //alive[i] contains the forms that matched the first i tokens
+
+    /**
+     * Adds every form that matches the first count tokens to target. Results for leading tokens that are equal to
+     * the ones passed in the previous call are reused.
+     * @param table The current forms of the command, which is also used to detect changes to them
+     * @param tokens The tokenized arguments
+     * @param count The number of leading tokens that need to match
+     * @param target The BitSet to add viable forms to
+     * @param scratch A BitSet used internally, whose contents are overwritten
+     */
+    synchronized void collectCandidates(@NotNull FormTable table, @NotNull String[] tokens, int count,
+                                        @NotNull BitSet target, @NotNull BitSet scratch) {
+        int reuse = 0;
+
+        if(this.table != table) { //forms were changed since the last completion
+            this.table = table;
+            this.tokens = new String[0];
+        }
+        else {
+            int limit = Math.min(count, this.tokens.length);
+            while(reuse < limit && this.tokens[reuse].equals(tokens[reuse])) {
+                reuse++;
+            }
+        }
+
+        if(alive.length <= count) {
+            int oldLength = alive.length;
+            alive = Arrays.copyOf(alive, count + 1);
+
+            for(int i = oldLength; i < alive.length; i++) {
+                alive[i] = new BitSet();
+            }
+        }
+
+        if(reuse == 0) {
+            alive[0].clear();
+            alive[0].set(0, table.forms.size());
+        }
+
+        for(int i = reuse; i < count; i++) {
+            BitSet next = alive[i + 1];
+            next.clear();
+            next.or(alive[i]);
+
+            if(!next.isEmpty()) {
+                table.automaton.retain(next, i, tokens[i], scratch);
+            }
+        }
+
+        this.tokens = Arrays.copyOf(tokens, count);
+        target.or(alive[count]);
+    }
+}
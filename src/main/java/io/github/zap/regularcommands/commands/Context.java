@@ -1,7 +1,9 @@
 package io.github.zap.regularcommands.commands;
 
+import io.github.zap.regularcommands.validator.ValidationCache;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
 
@@ -11,14 +13,27 @@ import java.util.Objects;
 public class Context {
     private final CommandSender sender;
     private final CommandForm<?> form;
+    private final ValidationCache validationCache;
 
     /**
-     * Creates a new Context object, which contains a CommandSender and a CommandForm.
+     * Creates a new Context object, which contains a CommandSender, a CommandForm, and the ValidationCache shared by
+     * every form validated during the same dispatch.
      * @param sender The CommandSender
+     * @param validationCache The ValidationCache of the current dispatch, or null if validators should not be memoized
      */
-    public Context(@NotNull CommandForm<?> form, @NotNull  CommandSender sender) {
+    public Context(@NotNull CommandForm<?> form, @NotNull CommandSender sender,
+                   @Nullable ValidationCache validationCache) {
         this.sender = Objects.requireNonNull(sender, "sender cannot be null");
         this.form = Objects.requireNonNull(form, "form cannot be null");
+        this.validationCache = validationCache;
+    }
+
+    /**
+     * Creates a new Context object, which contains a CommandSender and a CommandForm.
+     * @param sender The CommandSender
+     */
+    public Context(@NotNull CommandForm<?> form, @NotNull  CommandSender sender) {
+        this(form, sender, null);
     }
 
     /**
@@ -32,4 +47,12 @@ public class Context {
     public @NotNull CommandForm<?> getForm() {
         return form;
     }
+
+    /**
+     * Gets the ValidationCache shared by the forms validated on the server thread during the current dispatch.
+     * @return The ValidationCache, or null if validators are not memoized
+     */
+    public @Nullable ValidationCache getValidationCache() {
+        return validationCache;
+    }
 }
\ No newline at end of file
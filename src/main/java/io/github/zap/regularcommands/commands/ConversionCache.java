@@ -0,0 +1,58 @@
+package io.github.zap.regularcommands.commands;
+
+import io.github.zap.regularcommands.converter.ArgumentConverter;
+import io.github.zap.regularcommands.converter.ConversionResult;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the results of argument conversions performed during a single dispatch, so that forms which use the same
+ * converter on the same input share one conversion. Not thread-safe; instances should be cleared between dispatches.
+ */
+final class ConversionCache {
+    private Map<ArgumentConverter<?>, Map<String, ConversionResult<?>>> results;
+
+    /**
+     * Returns a previously stored conversion.
+     * @param converter The converter
+     * @param input The input that was converted
+     * @return The stored result, or null if this input has not been converted by this converter
+     */
+    @Nullable ConversionResult<?> get(@NotNull ArgumentConverter<?> converter, @NotNull String input) {
+        if(results == null) {
+            return null;
+        }
+
+        Map<String, ConversionResult<?>> converterResults = results.get(converter);
+        return converterResults == null ? null : converterResults.get(input);
+    }
+
+    /**
+     * Stores the result of a conversion.
+     * @param converter The converter
+     * @param input The input that was converted
+     * @param result The result of the conversion
+     */
+    void put(@NotNull ArgumentConverter<?> converter, @NotNull String input, @NotNull ConversionResult<?> result) {
+        if(results == null) {
+            results = new IdentityHashMap<>();
+        }
+
+        results.computeIfAbsent(converter, key -> new HashMap<>()).put(input, result);
+    }
+
+    /**
+     * Forgets every stored conversion. The underlying tables are kept so that they can be reused.
+     */
+    void clear() {
+        if(results != null) {
+            for(Map<String, ConversionResult<?>> converterResults : results.values()) {
+                converterResults.clear();
+            }
+        }
+    }
+}
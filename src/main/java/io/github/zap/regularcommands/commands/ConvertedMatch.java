@@ -0,0 +1,66 @@
+package io.github.zap.regularcommands.commands;
+
+import io.github.zap.regularcommands.converter.Arguments;
+import io.github.zap.regularcommands.converter.ConversionResult;
+import io.github.zap.regularcommands.converter.MatchResult;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A successful MatchResult, which keeps the converted arguments unboxed. Dispatch passes them on to validators and
+ * forms as they are; they are only boxed if {@link ConvertedMatch#getConversionResult()} is called.
+ */
+final class ConvertedMatch extends MatchResult {
+    private final Arguments arguments;
+    private volatile ConversionResult<Object[]> conversionResult;
+
+    /**
+     * Creates a new ConvertedMatch.
+     * @param form The form whose signature matched
+     * @param arguments The converted arguments
+     */
+    ConvertedMatch(@NotNull CommandForm<?> form, @NotNull Arguments arguments) {
+        super(form, true, true, null);
+        this.arguments = arguments;
+    }
+
+    /**
+     * Returns the result of converting every input argument, boxing any primitive values.
+     * @return A valid ConversionResult
+     */
+    @Override
+    public ConversionResult<Object[]> getConversionResult() {
+        ConversionResult<Object[]> result = conversionResult;
+
+        if(result == null) { //benign race; both results hold equal arrays
+            conversionResult = result = ConversionResult.of(true, arguments.toArray(), null);
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether the given MatchResult was converted successfully, without boxing its arguments.
+     * @param match The MatchResult
+     * @return true if the sender has permission and every argument was converted, false otherwise
+     */
+    static boolean isConverted(@NotNull MatchResult match) {
+        if(match instanceof ConvertedMatch) {
+            return true;
+        }
+
+        return match.hasPermission() && match.getConversionResult() != null && match.getConversionResult().isValid();
+    }
+
+    /**
+     * Gets the converted arguments of a successful MatchResult, without boxing them.
+     * @param match A MatchResult for which {@link ConvertedMatch#isConverted(MatchResult)} returns true
+     * @return The converted arguments
+     */
+    static @NotNull Arguments argumentsOf(@NotNull MatchResult match) {
+        if(match instanceof ConvertedMatch) {
+            return ((ConvertedMatch)match).arguments;
+        }
+
+        return Arguments.of(match.getConversionResult().getConversion());
+    }
+}
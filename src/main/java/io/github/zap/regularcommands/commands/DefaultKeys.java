@@ -11,6 +11,7 @@ public enum DefaultKeys {
     ERROR_BLOCK_EXECUTOR("default.feedback.error.block_executor", "Only blocks can execute this command!"),
     ERROR_NO_PERMISSION("default.feedback.error.no_permission", "You do not have permission to execute this command!"),
     ERROR_NO_FORMS("default.feedback.error.no_forms", "No matching forms exist for that command!"),
+    ERROR_RATE_LIMITED("default.feedback.error.rate_limited", "You must wait {0} second(s) before doing that again!"),
     ERROR_CONVERT_BIG_DECIMAL("default.feedback.error.convert.big_decimal", "Value {0} cannot be converted to a BigDecimal!"),
     ERROR_CONVERT_BIG_INTEGER("default.feedback.error.convert.big_integer", "Value {0} cannot be converted to a BigInteger!"),
     ERROR_CONVERT_LONG("default.feedback.error.convert.long", "Value {0} cannot be converted to a long!"),
@@ -21,7 +22,13 @@ public enum DefaultKeys {
     ERROR_CONVERT_BYTE("default.feedback.error.convert.byte", "Value {0} cannot be converted to a byte!"),
     ERROR_CONVERT_BOOLEAN("default.feedback.error.convert.boolean", "Value {0} cannot be converted to a boolean!"),
     ERROR_CONVERT_MATERIAL("default.feedback.error.convert.material","Value {0} cannot be converted to a Material!"),
-    COMMAND_HELP_PARAM_1_USAGE("default.command.help.usage.param.1", "[help]");
+    ERROR_CONVERT_PLAYER("default.feedback.error.convert.player", "No player named {0} is online!"),
+    ERROR_CONVERT_WORLD("default.feedback.error.convert.world", "No world named {0} is loaded!"),
+    ERROR_CONVERT_ENTITY("default.feedback.error.convert.entity", "No entity or online player matches {0}!"),
+    ERROR_CONVERT_RANGE("default.feedback.error.convert.range", "Value {0} must be a number from {1} to {2}!"),
+    ERROR_CONVERT_ENUM("default.feedback.error.convert.enum", "Value {0} cannot be converted to a {1}!"),
+    COMMAND_HELP_PARAM_1_USAGE("default.command.help.usage.param.1", "[help]"),
+    COMMAND_HELP_PARAM_2_USAGE("default.command.help.usage.param.2", "[page]");
 
     private final String key;
     private final String defaultPattern;
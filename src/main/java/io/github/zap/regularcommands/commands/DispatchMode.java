@@ -0,0 +1,20 @@
+package io.github.zap.regularcommands.commands;
+
+/**
+ * Determines how a RegularCommand handles input that matches more than one of its forms. In either mode, forms are
+ * considered in order of descending {@link CommandForm#getPriority()}, and forms with equal priority are considered in
+ * the order they were added.
+ */
+public enum DispatchMode {
+    /**
+     * Every matching form is executed.
+     */
+    ALL,
+
+    /**
+     * Only the first form that the sender has permission to use, and whose arguments convert successfully, is
+     * executed. Forms after it are not converted at all. Because a form of equal priority added later could never be
+     * reached for input that also matches an earlier one, such ambiguous forms are rejected when they are added.
+     */
+    FIRST
+}
@@ -0,0 +1,52 @@
+package io.github.zap.regularcommands.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-thread working memory used while dispatching or tab-completing a command, so that repeated dispatches on the
+ * same thread do not allocate it again. Instances must be released after use. If a dispatch is started while another
+ * one is already in progress on the same thread (for example, a form that runs a different command), a temporary
+ * instance is handed out instead.
+ */
+final class DispatchScratch {
+    private static final ThreadLocal<DispatchScratch> LOCAL = ThreadLocal.withInitial(DispatchScratch::new);
+
+    final BitSet candidates = new BitSet();
+    final BitSet scratch = new BitSet();
+    final ConversionCache conversions = new ConversionCache();
+    final Map<PermissionData, Boolean> permissions = new HashMap<>(); //results of permission checks in this dispatch
+
+    private boolean inUse;
+
+    private DispatchScratch() {}
+
+    /**
+     * Obtains the working memory for the current thread, or a new instance if it is already in use.
+     * @return A DispatchScratch whose BitSets and caches are empty
+     */
+    static @NotNull DispatchScratch acquire() {
+        DispatchScratch local = LOCAL.get();
+
+        if(local.inUse) {
+            return new DispatchScratch();
+        }
+
+        local.inUse = true;
+        return local;
+    }
+
+    /**
+     * Clears this instance and makes it available to the next dispatch on this thread.
+     */
+    void release() {
+        candidates.clear();
+        scratch.clear();
+        conversions.clear(); //don't keep converted objects alive between dispatches
+        permissions.clear();
+        inUse = false;
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.zap.regularcommands.commands;
+
+import io.github.zap.regularcommands.converter.Parameter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable trie that indexes the forms of a RegularCommand by their leading {@link Parameter.ParameterType#SIMPLE}
+ * parameters. Each form is stored at the node reached by following its literal prefix, so only forms whose literals
+ * agree with the input need to be tested. Forms are identified by their index in the list the trie was built from.
+ */
+final class DispatchTrie {
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final BitSet terminal = new BitSet(); //forms whose literal prefix ends at this node
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Builds a new DispatchTrie from the given list of forms.
+     * @param forms The forms to index
+     */
+    DispatchTrie(@NotNull List<CommandForm<?>> forms) {
+        for(int i = 0; i < forms.size(); i++) {
+            Node node = root;
+
+            for(Parameter parameter : forms.get(i)) {
+                if(parameter.getType() != Parameter.ParameterType.SIMPLE) {
+                    break;
+                }
+
+                node = node.children.computeIfAbsent(parameter.getMatch(), key -> new Node());
+            }
+
+            node.terminal.set(i);
+        }
+    }
+
+    /**
+     * Sets the bit of every form whose literal prefix is a prefix of the given arguments.
+     * @param args The complete input argument array
+     * @param target The BitSet to which candidate forms will be added
+     */
+    void collectMatches(@NotNull String[] args, @NotNull BitSet target) {
+        Node node = root;
+        target.or(node.terminal);
+
+        for(String arg : args) {
+            node = node.children.get(arg);
+
+            if(node == null) {
+                return;
+            }
+
+            target.or(node.terminal);
+        }
+    }
+}
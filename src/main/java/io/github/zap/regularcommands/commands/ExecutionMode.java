@@ -0,0 +1,26 @@
+package io.github.zap.regularcommands.commands;
+
+/**
+ * Determines which thread a CommandForm is validated and executed on. Regardless of the mode, argument matching,
+ * conversion and permission checks always happen on the thread that dispatched the command (normally the server
+ * thread), and any output is always sent to the sender from the server thread. Asynchronous steps run on the executor
+ * configured with {@link CommandManager#setExecutor(java.util.concurrent.Executor)}, and must not use parts of the
+ * Bukkit API that are not thread-safe, such as most methods that access worlds, entities or inventories.
+ */
+public enum ExecutionMode {
+    /**
+     * Validation and execution both happen on the dispatching thread. This is the default.
+     */
+    SYNC,
+
+    /**
+     * Validation happens on the dispatching thread, and execution happens asynchronously. Use this for forms whose
+     * validators need to inspect game state, but whose execution only performs slow work such as querying storage.
+     */
+    EXECUTE_ASYNC,
+
+    /**
+     * Validation and execution both happen asynchronously.
+     */
+    ASYNC
+}
@@ -0,0 +1,121 @@
+package io.github.zap.regularcommands.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Immutable snapshot of the forms of a RegularCommand, in dispatch order, together with the indices built from them
+ * and the PageBuilder that lists them. Since nothing in a table changes after it is created, a dispatch that reads the
+ * current table once sees a consistent set of forms and indices, even if the command's forms are changed while it
+ * runs. The PageBuilder is shared with tables created by {@link FormTable#withForms(Collection, DispatchMode)}, whose
+ * forms are added to it by the command; tables created by {@link FormTable#of(Collection, DispatchMode, Supplier)}
+ * get a new one. Either way, the PageBuilder lists forms in the order they were given, while the table orders them by
+ * priority.
+ */
+final class FormTable {
+    final List<CommandForm<?>> forms;
+    final DispatchTrie trie;
+    final ArityIndex arityIndex;
+    final PositionAutomaton automaton;
+    final PageBuilder pageBuilder;
+
+    private FormTable(List<CommandForm<?>> forms, PageBuilder pageBuilder) {
+        this.forms = forms;
+        this.trie = new DispatchTrie(forms);
+        this.arityIndex = new ArityIndex(forms);
+        this.automaton = new PositionAutomaton(forms);
+        this.pageBuilder = pageBuilder;
+    }
+
+    /**
+     * Creates a new table that contains no forms.
+     * @param pageBuilder The PageBuilder that will list the forms added to this table and the tables created from it
+     * @return A new, empty FormTable
+     */
+    static @NotNull FormTable empty(@NotNull PageBuilder pageBuilder) {
+        return new FormTable(Collections.emptyList(), pageBuilder);
+    }
+
+    /**
+     * Creates a new table that contains the forms of this table and the given forms, as if they were added one at a
+     * time. Each form is placed after every form of greater or equal priority. The indices are built once, no matter
+     * how many forms are added. The forms are not added to the PageBuilder.
+     * @param added The forms to add
+     * @param dispatchMode The DispatchMode of the command; if it is {@link DispatchMode#FIRST}, forms that are known to
+     *                     be ambiguous with an existing form of the same priority are rejected
+     * @return A new FormTable
+     * @throws IllegalArgumentException if a form is ambiguous with an existing form
+     */
+    @NotNull FormTable withForms(@NotNull Collection<? extends CommandForm<?>> added,
+                                 @NotNull DispatchMode dispatchMode) {
+        return new FormTable(sort(forms, added, dispatchMode), pageBuilder);
+    }
+
+    /**
+     * Creates a new table containing the given forms, as if they were added one at a time to an empty table. A new
+     * PageBuilder is obtained from pageBuilderFactory and filled with the forms, in the order they were given, before
+     * the table is created, so it is never seen partially filled.
+     * @param forms The forms to add
+     * @param dispatchMode The DispatchMode of the command
+     * @param pageBuilderFactory Creates the PageBuilder of the new table
+     * @return A new FormTable
+     * @throws IllegalArgumentException if a form is ambiguous with another form
+     */
+    static @NotNull FormTable of(@NotNull Collection<? extends CommandForm<?>> forms,
+                                 @NotNull DispatchMode dispatchMode,
+                                 @NotNull Supplier<? extends PageBuilder> pageBuilderFactory) {
+        List<CommandForm<?>> sorted = sort(Collections.emptyList(), forms, dispatchMode);
+
+        PageBuilder pageBuilder = Objects.requireNonNull(pageBuilderFactory.get(),
+                "pageBuilderFactory cannot return null");
+        for(CommandForm<?> form : forms) {
+            pageBuilder.addEntry(form);
+        }
+
+        return new FormTable(sorted, pageBuilder);
+    }
+
+    //appends added to existing and stably sorts by descending priority, which places every form after all forms of
+    //greater or equal priority, just like adding them one at a time
+    private static List<CommandForm<?>> sort(List<CommandForm<?>> existing,
+                                             Collection<? extends CommandForm<?>> added, DispatchMode dispatchMode) {
+        if(dispatchMode == DispatchMode.FIRST) {
+            checkAmbiguity(existing, added);
+        }
+
+        List<CommandForm<?>> sorted = new ArrayList<>(existing.size() + added.size());
+        sorted.addAll(existing);
+        sorted.addAll(added);
+        sorted.sort((first, second) -> Integer.compare(second.getPriority(), first.getPriority()));
+        return Collections.unmodifiableList(sorted);
+    }
+
+    //only forms of the same priority can be ambiguous, so each form is only compared to those
+    private static void checkAmbiguity(List<CommandForm<?>> existing, Collection<? extends CommandForm<?>> added) {
+        Map<Integer, List<CommandForm<?>>> byPriority = new HashMap<>();
+        for(CommandForm<?> form : existing) {
+            byPriority.computeIfAbsent(form.getPriority(), priority -> new ArrayList<>()).add(form);
+        }
+
+        for(CommandForm<?> form : added) {
+            List<CommandForm<?>> samePriority = byPriority.computeIfAbsent(form.getPriority(),
+                    priority -> new ArrayList<>());
+
+            for(CommandForm<?> other : samePriority) {
+                if(form.isAmbiguousWith(other)) {
+                    throw new IllegalArgumentException("form is ambiguous with an existing form of the same priority");
+                }
+            }
+
+            samePriority.add(form);
+        }
+    }
+}
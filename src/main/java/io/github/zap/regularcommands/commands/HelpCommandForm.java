@@ -1,7 +1,7 @@
 package io.github.zap.regularcommands.commands;
 
+import io.github.zap.regularcommands.converter.NumericRange;
 import io.github.zap.regularcommands.converter.Parameter;
-import io.github.zap.regularcommands.util.Converters;
 import io.github.zap.regularcommands.validator.CommandValidator;
 import io.github.zap.regularcommands.validator.ValidationResult;
 import net.kyori.adventure.text.Component;
@@ -11,7 +11,8 @@ import org.jetbrains.annotations.Nullable;
 public class HelpCommandForm extends CommandForm<Component> {
     private static final Parameter[] parameters = new Parameter[] {
             new Parameter("help", Component.translatable(DefaultKeys.COMMAND_HELP_PARAM_1_USAGE.key())),
-            new Parameter("^[1-9]\\d*$", Converters.INTEGER_CONVERTER)
+            new Parameter(NumericRange.ofInt(1, Integer.MAX_VALUE),
+                    Component.translatable(DefaultKeys.COMMAND_HELP_PARAM_2_USAGE.key()))
     };
 
     private static final CommandValidator<Component, ?> validator = new CommandValidator<>(
@@ -0,0 +1,157 @@
+package io.github.zap.regularcommands.commands;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.permissions.Permission;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the results of permission checks for each sender. Every Permission required by some form is assigned an
+ * index, and each sender has a pair of BitSets recording which of those permissions have been looked up and which of
+ * them were granted, so each permission is only looked up once per sender until the cache expires or is invalidated.
+ * Entries are held weakly, so they disappear along with the sender. Caching is disabled unless a duration is set.
+ *
+ * Bukkit has no event for permission or operator changes, so those are only noticed once the cache expires or is
+ * invalidated. The {@link Listener} returned by {@link PermissionCache#invalidator()} discards a player's entry when
+ * they quit or change worlds, which is when permission plugins usually recompute permissions.
+ */
+final class PermissionCache {
+    private static final int OP_INDEX = 0; //operator status is cached like a permission
+
+    private static final class Entry {
+        private final BitSet known = new BitSet();
+        private final BitSet granted = new BitSet();
+        private long expiresAt;
+    }
+
+    /**
+     * Discards the entries of players whose permissions are likely to have changed.
+     */
+    private final class Invalidator implements Listener {
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPlayerQuit(PlayerQuitEvent event) {
+            invalidate(event.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+            invalidate(event.getPlayer());
+        }
+    }
+
+    private final Map<Permission, Integer> indices = new ConcurrentHashMap<>();
+    private final Map<CommandSender, Entry> entries = Collections.synchronizedMap(new WeakHashMap<>());
+    private volatile long duration;
+
+    /**
+     * Creates a new PermissionCache.
+     * @param duration The number of nanoseconds a cached result remains valid for
+     */
+    PermissionCache(long duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Sets the number of nanoseconds a cached result remains valid for. If 0, nothing is cached.
+     * @param duration The duration, in nanoseconds
+     */
+    void setDuration(long duration) {
+        this.duration = duration;
+        entries.clear();
+    }
+
+    /**
+     * Tests if the sender has all the permissions specified by the given PermissionData, using cached results where
+     * possible.
+     * @param sender The sender to test
+     * @param permissions The required permissions
+     * @return True if the sender has, at minimum, all the required permissions. False otherwise
+     */
+    boolean test(@NotNull CommandSender sender, @NotNull PermissionData permissions) {
+        long duration = this.duration;
+        if(duration == 0) {
+            return permissions.validateFor(sender);
+        }
+
+        Entry entry = entries.computeIfAbsent(sender, key -> new Entry());
+        long now = System.nanoTime();
+
+        synchronized (entry) {
+            if(entry.known.isEmpty() || now - entry.expiresAt >= 0) {
+                entry.known.clear();
+                entry.granted.clear();
+                entry.expiresAt = now + duration;
+            }
+
+            if(permissions.requiresOp && !lookup(entry, OP_INDEX, sender, null)) {
+                return false;
+            }
+
+            for(Permission permission : permissions.permissions) {
+                if(!lookup(entry, indexOf(permission), sender, permission)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Discards all cached results for the given sender.
+     * @param sender The sender
+     */
+    void invalidate(@NotNull CommandSender sender) {
+        entries.remove(sender);
+    }
+
+    /**
+     * Discards all cached results.
+     */
+    void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Creates a Listener that invalidates the entry of a player when they quit or change worlds. It must be registered
+     * before caching is enabled.
+     * @return A new Listener
+     */
+    @NotNull Listener invalidator() {
+        return new Invalidator();
+    }
+
+    private int indexOf(Permission permission) {
+        Integer index = indices.get(permission);
+
+        if(index == null) {
+            synchronized (indices) { //indices must be unique, so they are assigned one at a time
+                index = indices.computeIfAbsent(permission, key -> indices.size() + OP_INDEX + 1);
+            }
+        }
+
+        return index;
+    }
+
+    private static boolean lookup(Entry entry, int index, CommandSender sender, Permission permission) {
+        if(!entry.known.get(index)) {
+            entry.known.set(index);
+
+            if(permission == null ? sender.isOp() : sender.hasPermission(permission)) {
+                entry.granted.set(index);
+            }
+        }
+
+        return entry.granted.get(index);
+    }
+}
@@ -8,11 +8,14 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- * Holds information about the permissions required to run a command.
+ * Holds information about the permissions required to run a command. Two PermissionData objects are equal if they
+ * require the same permissions and operator status, so forms with equal PermissionData only need to be checked once per
+ * dispatch.
  */
 public class PermissionData {
-    private final Set<Permission> permissions;
-    private final boolean requiresOp;
+    private final Set<Permission> permissionSet;
+    final Permission[] permissions;
+    final boolean requiresOp;
 
     /**
      * Creates a new PermissionData object with the specified permissions set and operator potentially required.
@@ -20,7 +23,8 @@ public class PermissionData {
      * @param requiresOp Whether or not operator should be required
      */
     public PermissionData(@NotNull Set<Permission> permissions, boolean requiresOp) {
-        this.permissions = new HashSet<>(permissions);
+        this.permissionSet = new HashSet<>(permissions);
+        this.permissions = permissionSet.toArray(new Permission[0]);
         this.requiresOp = requiresOp;
     }
 
@@ -53,6 +57,35 @@ public class PermissionData {
      * @return True if the Permissible has, at minimum, all the required permissions. False otherwise
      */
     public boolean validateFor(@NotNull Permissible permissible) {
-        return (!requiresOp || permissible.isOp()) && permissions.stream().allMatch(permissible::hasPermission);
+        if(requiresOp && !permissible.isOp()) {
+            return false;
+        }
+
+        for(Permission permission : permissions) {
+            if(!permissible.hasPermission(permission)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(this == other) {
+            return true;
+        }
+
+        if(other instanceof PermissionData) {
+            PermissionData otherData = (PermissionData)other;
+            return requiresOp == otherData.requiresOp && permissionSet.equals(otherData.permissionSet);
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * permissionSet.hashCode() + (requiresOp ? 1 : 0);
     }
 }
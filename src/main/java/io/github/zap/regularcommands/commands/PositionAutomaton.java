@@ -0,0 +1,128 @@
+package io.github.zap.regularcommands.commands;
+
+import io.github.zap.regularcommands.converter.ArgumentMatcher;
+import io.github.zap.regularcommands.converter.Parameter;
+import io.github.zap.regularcommands.util.Matchers;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable automaton that tests one argument position against every form of a RegularCommand at once. The parameters
+ * at each position are combined into a single {@link Matchers.Table}: SIMPLE parameters and patterns that are fixed
+ * words become one hash lookup, and patterns that are sequences of character classes are all advanced during the same
+ * scan of the argument. Parameters that share a pattern (or numeric range) share a single matcher. As a result, each
+ * argument is read once no matter how many forms use it, apart from patterns that must fall back to the regex engine
+ * and numeric ranges, which are tested separately. Forms are identified by their index in the list the automaton was
+ * built from.
+ */
+final class PositionAutomaton {
+    private static final class Column {
+        private final Map<Object, Integer> matcherIndices = new HashMap<>();
+        private final List<ArgumentMatcher> matchers = new ArrayList<>();
+        private final List<BitSet> matcherForms = new ArrayList<>();
+        private Matchers.Table table;
+
+        private void add(Parameter parameter, int form) {
+            Object key;
+            if(parameter.getType() == Parameter.ParameterType.SIMPLE) {
+                key = parameter; //merged with other literals by the table anyway
+            }
+            else {
+                //patterns have no equality, but ones without flags are fully described by their source
+                Pattern pattern = parameter.getPattern();
+                key = pattern == null ? parameter.getRange() : pattern.flags() == 0 ? pattern.pattern() : parameter;
+            }
+
+            Integer index = matcherIndices.get(key);
+
+            if(index == null) {
+                index = matchers.size();
+                matcherIndices.put(key, index);
+                matchers.add(parameter.getMatcher());
+                matcherForms.add(new BitSet());
+            }
+            else if(parameter.isCapturing()) { //matches the same arguments, and keeps the groups for conversion
+                matchers.set(index, parameter.getMatcher());
+            }
+
+            matcherForms.get(index).set(form);
+        }
+
+        private void build() {
+            table = Matchers.table(matchers, matcherForms);
+        }
+    }
+
+    private final Column[] columns; //the last column applies to every position past the longest form; only varargs
+
+    /**
+     * Builds a new PositionAutomaton from the given list of forms.
+     * @param forms The forms to index
+     */
+    PositionAutomaton(@NotNull List<CommandForm<?>> forms) {
+        int maxLength = 0;
+        for(CommandForm<?> form : forms) {
+            maxLength = Math.max(maxLength, form.size());
+        }
+
+        columns = new Column[maxLength + 1];
+        for(int i = 0; i < columns.length; i++) {
+            columns[i] = new Column();
+        }
+
+        for(int i = 0; i < forms.size(); i++) {
+            CommandForm<?> form = forms.get(i);
+            int size = form.size();
+
+            for(int position = 0; position < size; position++) {
+                columns[position].add(form.getParameter(position), i);
+            }
+
+            if(form.isVararg()) {
+                Parameter vararg = form.getParameter(size - 1);
+
+                for(int position = size; position < columns.length; position++) {
+                    columns[position].add(vararg, i);
+                }
+            }
+        }
+
+        for(Column column : columns) {
+            column.build();
+        }
+    }
+
+    /**
+     * Removes every form from alive whose parameter at the given position does not match the argument. Patterns used
+     * only by forms that are not in alive are skipped.
+     * @param alive The forms still being considered, which will be modified
+     * @param position The index of the argument
+     * @param argument The argument at that index
+     * @param scratch A BitSet used internally, whose contents are overwritten
+     */
+    void retain(@NotNull BitSet alive, int position, @NotNull String argument, @NotNull BitSet scratch) {
+        scratch.clear();
+        columns[Math.min(position, columns.length - 1)].table.collect(argument, alive, scratch);
+        alive.and(scratch);
+    }
+
+    /**
+     * Applies {@link PositionAutomaton#retain(BitSet, int, String, BitSet)} to each of the first count arguments,
+     * stopping early if no forms remain.
+     * @param alive The forms still being considered, which will be modified
+     * @param args The input argument array
+     * @param count The number of leading arguments to test
+     * @param scratch A BitSet used internally, whose contents are overwritten
+     */
+    void retainAll(@NotNull BitSet alive, @NotNull String[] args, int count, @NotNull BitSet scratch) {
+        for(int i = 0; i < count && !alive.isEmpty(); i++) {
+            retain(alive, i, args[i], scratch);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.zap.regularcommands.commands;
+
+import io.github.zap.regularcommands.converter.Arguments;
+import io.github.zap.regularcommands.converter.Parameter;
+import io.github.zap.regularcommands.validator.CommandValidator;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A CommandForm that receives its converted arguments as {@link Arguments} rather than an Object[] array. Values
+ * produced by primitive converters (ex. {@link io.github.zap.regularcommands.util.Converters#INT_PRIMITIVE_CONVERTER}
+ * or numeric parameters) can then be read without boxing, ex. using {@link Arguments#getInt(int)}. Subclasses
+ * implement {@link PrimitiveCommandForm#getValidator(Context, Arguments)} and
+ * {@link PrimitiveCommandForm#execute(Context, Arguments, Object)}; the Object[] methods wrap their array and call
+ * these.
+ */
+public abstract class PrimitiveCommandForm<T> extends CommandForm<T> {
+    /**
+     * Creates a PrimitiveCommandForm. See {@link CommandForm#CommandForm(RegularCommand, Component, PermissionData,
+     * Parameter...)}.
+     * @param command The RegularCommand instance this CommandForm is tied to
+     * @param usage A short, user-friendly description of what the command does
+     * @param permissionData The permissions required to execute this command
+     * @param parameters The parameters array that defines the signature of this command
+     */
+    public PrimitiveCommandForm(@NotNull RegularCommand command, @NotNull Component usage,
+                                @NotNull PermissionData permissionData, @NotNull Parameter... parameters) {
+        super(command, usage, permissionData, parameters);
+    }
+
+    /**
+     * Gets the validator used to perform additional verification on the command parameters, based off of the context
+     * or the state of any user-defined objects. This step will always be performed AFTER argument conversion; thus,
+     * arguments will contain converted values.
+     * @param context The current context
+     * @param arguments The converted values, whose types correspond to the output of any converters defined within
+     *                  the parameters array
+     * @return The validator used to determine if the command should execute
+     */
+    public abstract @Nullable CommandValidator<T, ?> getValidator(Context context, Arguments arguments);
+
+    /**
+     * Runs the command after the conversion and validation steps have been performed. The Arguments passed to this
+     * method will always be the same as those passed to getValidator. Depending on
+     * {@link CommandForm#getExecutionMode()}, this method may be called asynchronously; the returned message is always
+     * sent from the server thread.
+     * @param context The current context
+     * @param arguments The converted values, whose types correspond to any converters defined within the parameters
+     *                  array
+     * @param data A data object, which if non-null was generated by this form's validator
+     * @return A message that will be displayed to the player, and formatted if getStylizer() doesn't return null
+     */
+    public abstract @Nullable Component execute(Context context, Arguments arguments, T data);
+
+    /**
+     * Wraps the arguments and calls {@link PrimitiveCommandForm#getValidator(Context, Arguments)}.
+     * @param context The current context
+     * @param arguments An array of converted values
+     * @return The validator used to determine if the command should execute
+     */
+    @Override
+    public final @Nullable CommandValidator<T, ?> getValidator(Context context, Object[] arguments) {
+        return getValidator(context, Arguments.of(arguments));
+    }
+
+    /**
+     * Wraps the arguments and calls {@link PrimitiveCommandForm#execute(Context, Arguments, Object)}.
+     * @param context The current context
+     * @param arguments An array of converted values
+     * @param data A data object, which if non-null was generated by this form's validator
+     * @return A message that will be displayed to the player
+     */
+    @Override
+    public final @Nullable Component execute(Context context, Object[] arguments, T data) {
+        return execute(context, Arguments.of(arguments), data);
+    }
+
+    @Override
+    @Nullable CommandValidator<T, ?> validatorFor(Context context, Arguments arguments) {
+        return getValidator(context, arguments);
+    }
+
+    @Override
+    @Nullable Component executeWith(Context context, Arguments arguments, T data) {
+        return execute(context, arguments, data);
+    }
+}
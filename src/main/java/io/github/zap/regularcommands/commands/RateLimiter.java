@@ -0,0 +1,165 @@
+package io.github.zap.regularcommands.commands;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how often each sender may use a command or form. Every sender has a bucket holding up to a fixed number of
+ * permits, which refill at a constant rate; a cooldown is simply a bucket holding a single permit. Only entities are
+ * limited, identified by their UUID; other senders such as the console are never limited.
+ *
+ * Buckets are tracked using the generic cell rate algorithm, so the state of a bucket is a single timestamp which is
+ * updated without locking. A bucket that has completely refilled is indistinguishable from a missing one, and such
+ * buckets are periodically removed, so memory usage only depends on the number of senders that have recently used the
+ * command.
+ *
+ * A RateLimiter is used by returning it from {@link CommandForm#getRateLimiter()} or by passing it to
+ * {@link RegularCommand#setRateLimiter(RateLimiter)}. Command-level limits are checked before the input is matched
+ * against any form. Form-level limits are only checked once a form has been chosen for execution, after its arguments
+ * were converted successfully, so input that fails to convert does not use a permit.
+ */
+public final class RateLimiter {
+    private static final long REMOVED = Long.MIN_VALUE; //marks buckets that were removed during a sweep
+    private static final int SWEEP_INTERVAL = 256; //number of acquisitions between sweeps
+
+    private final long emissionInterval; //nanoseconds needed to regain one permit
+    private final long tolerance; //how far ahead of the current time a bucket may run before it is empty
+    private final Map<UUID, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger acquisitions = new AtomicInteger();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private RateLimiter(int permits, @NotNull Duration period) {
+        Objects.requireNonNull(period, "period cannot be null");
+
+        if(permits < 1) {
+            throw new IllegalArgumentException("permits must be greater than 0");
+        }
+
+        if(period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+
+        this.emissionInterval = Math.max(1, period.toNanos() / permits);
+        this.tolerance = emissionInterval * (permits - 1);
+    }
+
+    /**
+     * Creates a RateLimiter that allows each sender to use up to the given number of permits, which are regained
+     * evenly over the given period. A sender that has not used any permits for the entire period may use all of
+     * them in quick succession.
+     * @param permits The maximum number of permits a sender may hold
+     * @param period The time it takes to regain every permit
+     * @return A new RateLimiter
+     */
+    public static @NotNull RateLimiter of(int permits, @NotNull Duration period) {
+        return new RateLimiter(permits, period);
+    }
+
+    /**
+     * Creates a RateLimiter that requires each sender to wait for the given duration between uses.
+     * @param cooldown The duration a sender needs to wait
+     * @return A new RateLimiter
+     */
+    public static @NotNull RateLimiter cooldown(@NotNull Duration cooldown) {
+        return new RateLimiter(1, cooldown);
+    }
+
+    /**
+     * Attempts to use a permit for the given sender. Senders that are not entities are never limited.
+     * @param sender The sender
+     * @return 0 if a permit was used, or the number of nanoseconds until the sender will have a permit again
+     */
+    public long tryAcquire(@NotNull CommandSender sender) {
+        if(sender instanceof Entity) {
+            return tryAcquire(((Entity)sender).getUniqueId());
+        }
+
+        return 0;
+    }
+
+    /**
+     * Attempts to use a permit for the sender with the given UUID.
+     * @param id The UUID of the sender
+     * @return 0 if a permit was used, or the number of nanoseconds until the sender will have a permit again
+     */
+    public long tryAcquire(@NotNull UUID id) {
+        long now = System.nanoTime();
+
+        if(acquisitions.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            sweep(now);
+        }
+
+        while(true) {
+            AtomicLong bucket = buckets.computeIfAbsent(id, key -> new AtomicLong(now));
+            long arrival = bucket.get();
+
+            if(arrival == REMOVED) { //lost a race with the sweeper, the next iteration creates a new bucket
+                buckets.remove(id, bucket);
+                continue;
+            }
+
+            //arrival is the time at which the bucket is full again, compare relative to now to handle nanoTime overflow
+            long theoreticalArrival = arrival - now > 0 ? arrival : now;
+            long wait = theoreticalArrival - now - tolerance;
+
+            if(wait > 0) {
+                return wait;
+            }
+
+            if(bucket.compareAndSet(arrival, theoreticalArrival + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Refills the bucket of the sender with the given UUID, allowing them to use every permit again.
+     * @param id The UUID of the sender
+     */
+    public void reset(@NotNull UUID id) {
+        buckets.remove(id);
+    }
+
+    private void sweep(long now) {
+        if(!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            for(Map.Entry<UUID, AtomicLong> entry : buckets.entrySet()) {
+                AtomicLong bucket = entry.getValue();
+                long arrival = bucket.get();
+
+                //full buckets are equivalent to missing ones
+                if(arrival != REMOVED && arrival - now <= 0 && bucket.compareAndSet(arrival, REMOVED)) {
+                    buckets.remove(entry.getKey(), bucket);
+                }
+            }
+        }
+        finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * Creates the message sent to a sender who has to wait before using a command or form again.
+     * @param waitNanos The number of nanoseconds the sender has to wait
+     * @return A translatable message
+     */
+    static @NotNull Component limitedMessage(long waitNanos) {
+        long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        return Component.translatable(DefaultKeys.ERROR_RATE_LIMITED.key(), Component.text(seconds));
+    }
+}
@@ -1,13 +1,21 @@
 package io.github.zap.regularcommands.commands;
 
 import io.github.zap.regularcommands.completer.ArgumentCompleter;
+import io.github.zap.regularcommands.completer.CompletionSink;
 import io.github.zap.regularcommands.converter.MatchResult;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
 
 /**
  * Represents a command, which should conceptually organize a number of related CommandForms. Strictly, RegularCommands
@@ -16,27 +24,120 @@ import java.util.Objects;
 public class RegularCommand {
     private final CommandManager manager;
     private final String name;
-    private final List<CommandForm<?>> forms;
-    private final PageBuilder pageBuilder;
+    private final Supplier<? extends PageBuilder> pageBuilderFactory; //null if only a PageBuilder instance was given
+    private final DispatchMode dispatchMode;
+    private volatile FormTable table;
+    private volatile RateLimiter rateLimiter;
+    private final Map<CommandSender, CompletionState> completionStates =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
-     * Creates a new RegularCommand with the specified name and list of forms.
+     * Creates a new RegularCommand with the specified name, PageBuilder and DispatchMode. Commands created with this
+     * constructor cannot have their forms replaced, as the PageBuilder cannot be rebuilt; see
+     * {@link RegularCommand#RegularCommand(CommandManager, String, Supplier, DispatchMode)}.
+     * @param name The name of the RegularCommand
+     * @param dispatchMode Determines how input matching more than one form is handled
+     */
+    public RegularCommand(@NotNull CommandManager manager, @NotNull String name, @NotNull PageBuilder pageBuilder,
+                          @NotNull DispatchMode dispatchMode) {
+        this.manager = manager;
+        this.name = Objects.requireNonNull(name, "name cannot be null");
+        this.pageBuilderFactory = null;
+        this.dispatchMode = Objects.requireNonNull(dispatchMode, "dispatchMode cannot be null");
+        this.table = FormTable.empty(Objects.requireNonNull(pageBuilder, "pageBuilder cannot be null"));
+    }
+
+    /**
+     * Creates a new RegularCommand with the specified name, which will execute every matching form. Commands created
+     * with this constructor cannot have their forms replaced, as the PageBuilder cannot be rebuilt.
      * @param name The name of the RegularCommand
      */
     public RegularCommand(@NotNull CommandManager manager, @NotNull String name, @NotNull PageBuilder pageBuilder) {
+        this(manager, name, pageBuilder, DispatchMode.ALL);
+    }
+
+    /**
+     * Creates a new RegularCommand with the specified name and DispatchMode, whose PageBuilders are created by the
+     * given supplier (ex. {@code BasicPageBuilder::new}). A new PageBuilder is created now, and every time the forms
+     * of this command are replaced.
+     * @param name The name of the RegularCommand
+     * @param pageBuilderFactory Creates an empty PageBuilder each time it is called
+     * @param dispatchMode Determines how input matching more than one form is handled
+     */
+    public RegularCommand(@NotNull CommandManager manager, @NotNull String name,
+                          @NotNull Supplier<? extends PageBuilder> pageBuilderFactory,
+                          @NotNull DispatchMode dispatchMode) {
         this.manager = manager;
         this.name = Objects.requireNonNull(name, "name cannot be null");
-        this.forms = new ArrayList<>();
-        this.pageBuilder = Objects.requireNonNull(pageBuilder, "pageBuilder cannot be null");
+        this.pageBuilderFactory = Objects.requireNonNull(pageBuilderFactory, "pageBuilderFactory cannot be null");
+        this.dispatchMode = Objects.requireNonNull(dispatchMode, "dispatchMode cannot be null");
+        this.table = FormTable.empty(Objects.requireNonNull(pageBuilderFactory.get(),
+                "pageBuilderFactory cannot return null"));
     }
 
     /**
-     * Adds a form to this RegularCommand.
+     * Adds a form to this RegularCommand. The form is placed after every form of greater or equal priority. If this
+     * command uses {@link DispatchMode#FIRST}, forms that are known to be ambiguous with an existing form of the same
+     * priority are rejected.
      * @param form The form to add
+     * @throws IllegalArgumentException if the form is ambiguous with an already-added form
      */
-    public void addForm(@NotNull CommandForm<?> form) {
-        forms.add(Objects.requireNonNull(form, "form cannot be null"));
-        pageBuilder.addEntry(form);
+    public synchronized void addForm(@NotNull CommandForm<?> form) {
+        Objects.requireNonNull(form, "form cannot be null");
+        addForms(Collections.singletonList(form));
+    }
+
+    /**
+     * Adds several forms to this RegularCommand, as if they were added one at a time using
+     * {@link RegularCommand#addForm(CommandForm)}, but building the dispatch indices only once. Registering many forms
+     * this way takes time proportional to their number, rather than to its square.
+     * @param forms The forms to add
+     * @throws IllegalArgumentException if a form is ambiguous with an already-added form or with another of the given
+     * forms; in this case, none of the forms are added
+     */
+    public synchronized void addForms(@NotNull Collection<? extends CommandForm<?>> forms) {
+        Objects.requireNonNull(forms, "forms cannot be null");
+        for(CommandForm<?> form : forms) {
+            Objects.requireNonNull(form, "forms cannot contain null elements");
+        }
+
+        table = table.withForms(forms, dispatchMode);
+        for(CommandForm<?> form : forms) {
+            table.pageBuilder.addEntry(form);
+        }
+    }
+
+    /**
+     * Atomically replaces every form of this RegularCommand with the given forms, which are ordered, checked and listed
+     * on the help pages as if they were added one at a time using {@link RegularCommand#addForm(CommandForm)}. Dispatches and completions that
+     * are already running finish using the old forms, and every later one sees only the new forms. A new PageBuilder is
+     * created and filled with the new forms before they are published, so help pages never list a mix of old and new
+     * forms, or none at all.
+     * @param forms The new forms
+     * @throws IllegalArgumentException if a form is ambiguous with another form; in this case, nothing is replaced
+     * @throws IllegalStateException if this command was created with a PageBuilder instance rather than a supplier
+     */
+    public synchronized void replaceForms(@NotNull Collection<? extends CommandForm<?>> forms) {
+        Objects.requireNonNull(forms, "forms cannot be null");
+        for(CommandForm<?> form : forms) {
+            Objects.requireNonNull(form, "forms cannot contain null elements");
+        }
+
+        if(pageBuilderFactory == null) {
+            throw new IllegalStateException("forms can only be replaced if the command was created with a " +
+                    "PageBuilder supplier");
+        }
+
+        table = FormTable.of(forms, dispatchMode, pageBuilderFactory);
+    }
+
+    /**
+     * Returns the forms of this RegularCommand, in the order they are considered during dispatch. The returned list is
+     * an unmodifiable snapshot, and does not reflect forms that are added or replaced later.
+     * @return A snapshot of the forms of this command
+     */
+    public @NotNull List<CommandForm<?>> getForms() {
+        return table.forms;
     }
 
     /**
@@ -55,60 +156,185 @@ public class RegularCommand {
         return name;
     }
 
+    /**
+     * Gets the PageBuilder that lists the current forms of this RegularCommand. If the forms are replaced, a different
+     * PageBuilder is returned afterwards.
+     * @return The current PageBuilder
+     */
     public @NotNull PageBuilder getPageBuilder() {
-        return pageBuilder;
+        return table.pageBuilder;
+    }
+
+    /**
+     * Gets the DispatchMode of this RegularCommand.
+     * @return The DispatchMode that determines how input matching more than one form is handled
+     */
+    public @NotNull DispatchMode getDispatchMode() {
+        return dispatchMode;
     }
 
     /**
-     * Returns a list of all CommandForm objects that match the provided argument array.
+     * Gets the RateLimiter that limits how often each sender may use this command, regardless of which form they use.
+     * @return The RateLimiter of this command, or null if it is not limited
+     */
+    public @Nullable RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Sets the RateLimiter that limits how often each sender may use this command, regardless of which form they use.
+     * Commands that are limited are rejected before their input is matched against any form.
+     * @param rateLimiter The RateLimiter to use, or null to remove the limit
+     */
+    public void setRateLimiter(@Nullable RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Returns a list of all CommandForm objects that match the provided argument array. Only forms whose leading
+     * SIMPLE parameters agree with the input, and which can accept the number of arguments given, are considered. Each
+     * argument is then tested against every remaining form in a single pass, and only forms whose arguments all match
+     * are converted, in priority order. Forms that use the same converter on the same input share a single conversion.
+     * Rate limits are not checked by this method.
+     *
+     * If this command uses {@link DispatchMode#FIRST}, at most one result is returned: the first match that the sender
+     * has permission to use and whose arguments converted successfully. If there is no such match, the first failed
+     * conversion is returned instead, or failing that the first form the sender lacks permission for.
      * @param args The argument array used to check for matches
      * @param sender The CommandSender that is attempting to run this command
-     * @return All matching command forms, or an empty list if none exist
+     * @return All matching command forms, or an empty list if none exist. The returned list should not be modified
      */
     public @NotNull List<MatchResult> getMatches(@NotNull String[] args, @NotNull CommandSender sender) {
-        List<MatchResult> matches = new ArrayList<>();
-        for(CommandForm<?> form : forms) {
-            //check permissions before running relatively expensive matching algorithm
-            if(form.getPermissions().validateFor(sender)) {
-                MatchResult matchResult = form.matches(args);
+        FormTable table = this.table;
+        List<CommandForm<?>> forms = table.forms;
+        DispatchScratch scratch = DispatchScratch.acquire();
+
+        try {
+            BitSet candidates = scratch.candidates;
+            table.trie.collectMatches(args, candidates);
+            candidates.and(table.arityIndex.formsAccepting(args.length));
+            table.automaton.retainAll(candidates, args, args.length, scratch.scratch);
+
+            List<MatchResult> matches = null; //only allocated if something actually matches
+            MatchResult firstFailure = null;
+            for(int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                CommandForm<?> form = forms.get(i);
+                MatchResult matchResult;
+
+                //check permissions before running relatively expensive conversion
+                if(hasPermission(sender, form.getPermissions(), scratch)) {
+                    matchResult = form.convertMatched(args, sender, scratch.conversions);
+                }
+                else {
+                    matchResult = form.denied();
+                }
+
+                if(dispatchMode == DispatchMode.ALL) {
+                    if(matches == null) {
+                        matches = new ArrayList<>();
+                    }
 
-                if(matchResult.matches()) {
                     matches.add(matchResult);
                 }
+                else if(ConvertedMatch.isConverted(matchResult)) { //checked without boxing the arguments
+                    return Collections.singletonList(matchResult);
+                }
+                else if(firstFailure == null || !firstFailure.hasPermission() && matchResult.hasPermission()) {
+                    firstFailure = matchResult; //conversion errors are more useful to the sender than permission errors
+                }
             }
-            else {
-                matches.add(new MatchResult(form, false, false, null));
+
+            if(firstFailure != null) {
+                return Collections.singletonList(firstFailure);
             }
-        }
 
-        return matches;
+            return matches == null ? Collections.emptyList() : matches;
+        }
+        finally {
+            scratch.release();
+        }
     }
 
     /**
      * Attempts to generate a tab completion list given a CommandSender and an array of strings corresponding to a
-     * partially completed command.
+     * partially completed command. The forms that remain viable after each argument are remembered per sender, so
+     * that consecutive requests which only differ in their trailing arguments do not test the leading ones again.
+     * Completers push their results into a {@link CompletionSink}, so duplicate completions are removed, and no more
+     * completers are run once {@link CommandManager#getCompletionLimit()} completions have been found.
      * @param sender The CommandSender that is attempting to tab complete
      * @param args The current argument list, which may be partially or fully completed but should never be null or an
      *             empty array
      * @return A list containing tab completions, or an empty list if none exist
      */
     public @NotNull List<String> getCompletions(@NotNull CommandSender sender, @NotNull String[] args) {
-        List<String> possibleCompletions = new ArrayList<>();
+        return completions(sender, args, false);
+    }
 
-        for(CommandForm<?> form : forms) {
-            if(form.getPermissions().validateFor(sender) && form.matchScore(args) >= 0) {
-                ArgumentCompleter completer = form.getCompleter();
+    /**
+     * Works like {@link RegularCommand#getCompletions(CommandSender, String[])}, but may be called from any thread. If
+     * any form that could be completed from the given arguments has a completer that is not
+     * {@link ArgumentCompleter#isAsyncSafe()}, no completers are run and null is returned, in which case the caller
+     * should complete on the server thread instead.
+     * @param sender The CommandSender that is attempting to tab complete
+     * @param args The current argument list, which may be partially or fully completed but should never be null or an
+     *             empty array
+     * @return A list containing tab completions, or null if completions must be generated on the server thread
+     */
+    public @Nullable List<String> getAsyncCompletions(@NotNull CommandSender sender, @NotNull String[] args) {
+        return completions(sender, args, true);
+    }
 
-                if(completer != null) {
-                    List<String> formCompletions = completer.complete(new Context(form, sender), args);
+    private List<String> completions(CommandSender sender, String[] args, boolean async) {
+        CompletionSink sink = new CompletionSink(manager.getCompletionLimit());
+        FormTable table = this.table;
+        List<CommandForm<?>> forms = table.forms;
+        DispatchScratch scratch = DispatchScratch.acquire();
 
-                    if(formCompletions != null) {
-                        possibleCompletions.addAll(formCompletions);
+        try {
+            BitSet candidates = scratch.candidates;
+            CompletionState state = completionStates.computeIfAbsent(sender, key -> new CompletionState());
+
+            //last argument may be incomplete
+            state.collectCandidates(table, args, args.length - 1, candidates, scratch.scratch);
+
+            if(async) { //check every completer before running any of them
+                for(int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    CommandForm<?> form = forms.get(i);
+                    ArgumentCompleter completer = form.getCompleter();
+
+                    if(completer != null && !completer.isAsyncSafe() && form.canComplete(args.length)) {
+                        return null;
                     }
                 }
             }
+
+            for(int i = candidates.nextSetBit(0); i >= 0 && !sink.isFull(); i = candidates.nextSetBit(i + 1)) {
+                CommandForm<?> form = forms.get(i);
+
+                if(form.canComplete(args.length) && hasPermission(sender, form.getPermissions(), scratch)) {
+                    ArgumentCompleter completer = form.getCompleter();
+
+                    if(completer != null) {
+                        completer.complete(new Context(form, sender), args, sink);
+                    }
+                }
+            }
+        }
+        finally {
+            scratch.release();
+        }
+
+        return sink.getCompletions();
+    }
+
+    private boolean hasPermission(CommandSender sender, PermissionData permissions, DispatchScratch scratch) {
+        Boolean result = scratch.permissions.get(permissions);
+
+        if(result == null) {
+            result = manager.getPermissionCache().test(sender, permissions);
+            scratch.permissions.put(permissions, result);
         }
 
-        return possibleCompletions;
+        return result;
     }
-}
\ No newline at end of file
+}
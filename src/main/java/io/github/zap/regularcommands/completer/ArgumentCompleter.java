@@ -4,6 +4,7 @@ import io.github.zap.regularcommands.commands.Context;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -12,31 +13,68 @@ import java.util.List;
 public class ArgumentCompleter {
     private final CompletionStep step;
     private final ArgumentCompleter depend;
+    private final boolean asyncSafe;
 
     /**
      * Creates a new ArgumentCompleter object with the specified CompletionStep, an ArgumentCompleter this instance
-     * should be chained to.
+     * should be chained to, and whether the step may be run off of the server thread.
      * @param step The completion step
      * @param depend The ArgumentCompleter whose output will be added to this instance's
+     * @param asyncSafe Whether the step is thread-safe and does not use parts of the Bukkit API that must be accessed
+     *                  from the server thread
      */
-    public ArgumentCompleter(@NotNull CompletionStep step, @Nullable ArgumentCompleter depend) {
+    public ArgumentCompleter(@NotNull CompletionStep step, @Nullable ArgumentCompleter depend, boolean asyncSafe) {
         this.step = step;
         this.depend = depend;
+        this.asyncSafe = asyncSafe;
     }
 
     /**
-     * Creates a new ArgumentCompleter object with the specified CompletionStep.
+     * Creates a new ArgumentCompleter object with the specified CompletionStep, an ArgumentCompleter this instance
+     * should be chained to. The completer is not considered async-safe.
+     * @param step The completion step
+     * @param depend The ArgumentCompleter whose output will be added to this instance's
+     */
+    public ArgumentCompleter(@NotNull CompletionStep step, @Nullable ArgumentCompleter depend) {
+        this(step, depend, false);
+    }
+
+    /**
+     * Creates a new ArgumentCompleter object with the specified CompletionStep and whether the step may be run off of
+     * the server thread.
+     * @param step The completion step
+     * @param asyncSafe Whether the step is thread-safe and does not use parts of the Bukkit API that must be accessed
+     *                  from the server thread
+     */
+    public ArgumentCompleter(@NotNull CompletionStep step, boolean asyncSafe) {
+        this(step, null, asyncSafe);
+    }
+
+    /**
+     * Creates a new ArgumentCompleter object with the specified CompletionStep. The completer is not considered
+     * async-safe.
      * @param step The completion step
      */
     public ArgumentCompleter(@NotNull CompletionStep step) {
         this(step, null);
     }
 
+    /**
+     * Returns whether this completer, and every completer it is chained to, may be run asynchronously. Only commands
+     * whose completers are all async-safe are completed off of the server thread; see
+     * {@link io.github.zap.regularcommands.commands.CommandManager#enableAsyncCompletion()}.
+     * @return true if this completer is async-safe, false otherwise
+     */
+    public boolean isAsyncSafe() {
+        return asyncSafe && (depend == null || depend.isAsyncSafe());
+    }
+
     /**
      * Produces a list of completion strings given the context, CommandForm, and a possibly incomplete set of arguments.
      * @param context The command context
      * @param args A potentially incomplete list of arguments
-     * @return A list of strings corresponding to potential completions, or null if there are none
+     * @return A list of strings corresponding to potential completions, or null if there are none. The list may be
+     * unmodifiable
      */
     public List<String> complete(@NotNull Context context, @NotNull String[] args) {
         if(depend == null) {
@@ -46,15 +84,36 @@ public class ArgumentCompleter {
         List<String> nextResult = depend.complete(context, args);
         List<String> result = step.complete(context, args);
 
-        if(result != null) {
-            if(nextResult != null) {
-                nextResult.addAll(result);
-            }
-            else {
-                nextResult = result;
-            }
+        if(result == null) {
+            return nextResult;
+        }
+
+        if(nextResult == null) {
+            return result;
+        }
+
+        //steps may return unmodifiable lists, so neither is modified
+        List<String> combined = new ArrayList<>(nextResult.size() + result.size());
+        combined.addAll(nextResult);
+        combined.addAll(result);
+        return combined;
+    }
+
+    /**
+     * Pushes completions into the given sink, starting with those of the ArgumentCompleter this instance is chained
+     * to. Unlike {@link ArgumentCompleter#complete(Context, String[])}, no intermediate lists are combined, and once
+     * the sink is full no further steps are run.
+     * @param context The command context
+     * @param args A potentially incomplete list of arguments
+     * @param sink The sink to add completions to
+     */
+    public void complete(@NotNull Context context, @NotNull String[] args, @NotNull CompletionSink sink) {
+        if(depend != null) {
+            depend.complete(context, args, sink);
         }
 
-        return nextResult;
+        if(!sink.isFull()) {
+            step.completeInto(context, args, sink);
+        }
     }
 }
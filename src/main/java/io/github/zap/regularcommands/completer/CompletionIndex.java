@@ -0,0 +1,119 @@
+package io.github.zap.regularcommands.completer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable index over a list of completion options, which finds every option starting with a given prefix using a
+ * binary search over a sorted copy of the options. Options starting with the same prefix are stored next to each
+ * other, so only the matching options are visited. They are returned in the order the options were given in.
+ */
+public final class CompletionIndex {
+    public static final CompletionIndex EMPTY = new CompletionIndex(new String[0]);
+
+    private final String[] sorted;
+    private final int[] positions; //positions[i] is the position of sorted[i] in the original options
+    private final List<String> optionList;
+
+    private CompletionIndex(String[] options) {
+        Integer[] order = new Integer[options.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, Comparator.comparing(position -> options[position])); //stable, so duplicates stay in order
+
+        this.sorted = new String[options.length];
+        this.positions = new int[options.length];
+        for(int i = 0; i < order.length; i++) {
+            sorted[i] = options[order[i]];
+            positions[i] = order[i];
+        }
+
+        this.optionList = Collections.unmodifiableList(Arrays.asList(options));
+    }
+
+    /**
+     * Creates a new CompletionIndex containing the given options.
+     * @param options The options to index, which may contain duplicates
+     * @return A new CompletionIndex
+     */
+    public static @NotNull CompletionIndex of(@NotNull Collection<String> options) {
+        Objects.requireNonNull(options, "options cannot be null");
+
+        if(options.isEmpty()) {
+            return EMPTY;
+        }
+
+        String[] copy = options.toArray(new String[0]);
+        for(String option : copy) {
+            Objects.requireNonNull(option, "options cannot contain null elements");
+        }
+
+        return new CompletionIndex(copy);
+    }
+
+    /**
+     * Returns every option that starts with the given prefix, in the order the options were given in.
+     * @param prefix The prefix, which is case-sensitive
+     * @return A new, modifiable list of the matching options, which is empty if there are none
+     */
+    public @NotNull List<String> withPrefix(@NotNull String prefix) {
+        int start = Arrays.binarySearch(sorted, prefix);
+        if(start < 0) {
+            start = -start - 1;
+        }
+        else {
+            while(start > 0 && sorted[start - 1].equals(prefix)) { //binarySearch finds any one of several duplicates
+                start--;
+            }
+        }
+
+        //options before the end of the range are either less than the prefix or start with it
+        int low = start;
+        int high = sorted.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+
+            if(sorted[middle].startsWith(prefix)) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        int[] matching = Arrays.copyOfRange(positions, start, low);
+        Arrays.sort(matching); //back to the original order
+
+        List<String> results = new ArrayList<>(matching.length);
+        for(int position : matching) {
+            results.add(optionList.get(position));
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns every option, in the order they were given in.
+     * @return An unmodifiable view of every option
+     */
+    public @NotNull List<String> getOptions() {
+        return optionList;
+    }
+
+    /**
+     * Returns the number of options in this index.
+     * @return The number of options
+     */
+    public int size() {
+        return sorted.length;
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.zap.regularcommands.completer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects completions pushed by one or more {@link CompletionStep}s. Duplicate completions are ignored, and once the
+ * sink holds its maximum number of completions it is full and rejects any further ones; steps should check
+ * {@link CompletionSink#isFull()} or the return value of {@link CompletionSink#accept(String)} to stop generating
+ * completions that will never be shown.
+ */
+public final class CompletionSink {
+    private final int limit;
+    private final List<String> completions = new ArrayList<>();
+    private final Set<String> seen = new HashSet<>();
+
+    /**
+     * Creates a new CompletionSink that accepts at most the given number of completions.
+     * @param limit The maximum number of completions
+     */
+    public CompletionSink(int limit) {
+        if(limit < 0) {
+            throw new IllegalArgumentException("limit cannot be negative");
+        }
+
+        this.limit = limit;
+    }
+
+    /**
+     * Creates a new CompletionSink without a limit.
+     */
+    public CompletionSink() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds a completion to this sink, unless it is full or already contains the completion.
+     * @param completion The completion to add
+     * @return false if the sink is full after this call, true if it can accept more completions
+     */
+    public boolean accept(@NotNull String completion) {
+        if(completions.size() < limit && seen.add(completion)) {
+            completions.add(completion);
+        }
+
+        return completions.size() < limit;
+    }
+
+    /**
+     * Adds every completion in the given list to this sink, stopping once it is full.
+     * @param completions The completions to add
+     * @return false if the sink is full after this call, true if it can accept more completions
+     */
+    public boolean acceptAll(@NotNull List<String> completions) {
+        for(String completion : completions) {
+            if(!accept(completion)) {
+                return false;
+            }
+        }
+
+        return !isFull();
+    }
+
+    /**
+     * Returns whether this sink is full. Completions added to a full sink are ignored.
+     * @return true if this sink is full, false otherwise
+     */
+    public boolean isFull() {
+        return completions.size() >= limit;
+    }
+
+    /**
+     * Returns the completions in this sink, in the order they were first added.
+     * @return The list of completions backing this sink
+     */
+    public @NotNull List<String> getCompletions() {
+        return completions;
+    }
+}
@@ -7,4 +7,19 @@ import java.util.List;
 
 public interface CompletionStep {
     List<String> complete(@NotNull Context context, @NotNull String[] args);
+
+    /**
+     * Pushes completions into the given sink. Steps that generate many candidates should override this to stop as soon
+     * as the sink is full; by default, it adds the result of {@link CompletionStep#complete(Context, String[])}.
+     * @param context The command context
+     * @param args A potentially incomplete list of arguments
+     * @param sink The sink to add completions to
+     */
+    default void completeInto(@NotNull Context context, @NotNull String[] args, @NotNull CompletionSink sink) {
+        List<String> completions = complete(context, args);
+
+        if(completions != null) {
+            sink.acceptAll(completions);
+        }
+    }
 }
@@ -0,0 +1,380 @@
+package io.github.zap.regularcommands.completer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Immutable index over a set of completion options that supports approximate matching, for use when players are likely
+ * to mistype. All matching ignores case. Options are ranked into the following tiers, and within a tier, shorter and
+ * then alphabetically earlier options come first:
+ * <ol>
+ *     <li>Options starting with the query</li>
+ *     <li>Options starting with a string that is one edit away from the query (e.g. "daimo" matches "DIAMOND")</li>
+ *     <li>Options containing every character of the query in order (e.g. "dmnd" matches "DIAMOND")</li>
+ *     <li>Options starting with a string that is more than one, but at most {@link FuzzyIndex#MAX_EDITS}, edits away
+ *     from the query</li>
+ * </ol>
+ * Edits are insertions, deletions, substitutions and transpositions of adjacent characters. Queries shorter than 3
+ * characters are not edit-matched, and longer queries allow one edit per 3 characters.
+ * Everything that does not depend on the query (lowercase forms, character masks and their sorted order) is computed
+ * when the index is built. Options starting with the query are found by binary search over the sorted lowercase forms,
+ * and the remaining options are only scanned if the prefix matches do not already fill the limit. That scan skips
+ * options whose length or characters rule out a match, and computes edit distances only within
+ * {@link FuzzyIndex#MAX_EDITS} of the diagonal.
+ */
+public final class FuzzyIndex {
+    public static final FuzzyIndex EMPTY = new FuzzyIndex(new String[0], new String[0]);
+
+    /**
+     * The maximum number of edits allowed when edit-matching.
+     */
+    public static final int MAX_EDITS = 2;
+
+    private static final int PREFIX_TIER = 0;
+    private static final int SINGLE_EDIT_TIER = 1;
+    private static final int SUBSEQUENCE_TIER = 2;
+    private static final int MULTIPLE_EDIT_TIER = 3;
+
+    private final String[] options; //sorted by lowercase form, then by the original string
+    private final String[] lowercase; //sorted, so the options starting with a query are contiguous
+    private final long[] masks; //characters present in each lowercase option
+    private final int maxLength;
+
+    private FuzzyIndex(String[] options, String[] lowercase) {
+        this.options = options;
+        this.lowercase = lowercase;
+        this.masks = new long[options.length];
+
+        int maxLength = 0;
+        for(int i = 0; i < options.length; i++) {
+            masks[i] = mask(lowercase[i]);
+            maxLength = Math.max(maxLength, lowercase[i].length());
+        }
+
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Creates a new FuzzyIndex containing the given options.
+     * @param options The options to index
+     * @return A new FuzzyIndex
+     */
+    public static @NotNull FuzzyIndex of(@NotNull Collection<String> options) {
+        Objects.requireNonNull(options, "options cannot be null");
+
+        if(options.isEmpty()) {
+            return EMPTY;
+        }
+
+        String[] originals = options.toArray(new String[0]);
+        String[] lowercase = new String[originals.length];
+        Integer[] order = new Integer[originals.length];
+        for(int i = 0; i < originals.length; i++) {
+            Objects.requireNonNull(originals[i], "options cannot contain null elements");
+            lowercase[i] = originals[i].toLowerCase(Locale.ROOT);
+            order[i] = i;
+        }
+
+        //sort by the exact lowercase forms that are searched, so that prefix matches are contiguous
+        Arrays.sort(order, (first, second) -> {
+            int result = lowercase[first].compareTo(lowercase[second]);
+            return result == 0 ? originals[first].compareTo(originals[second]) : result;
+        });
+
+        String[] sortedOptions = new String[originals.length];
+        String[] sortedLowercase = new String[originals.length];
+        for(int i = 0; i < order.length; i++) {
+            sortedOptions[i] = originals[order[i]];
+            sortedLowercase[i] = lowercase[order[i]];
+        }
+
+        return new FuzzyIndex(sortedOptions, sortedLowercase);
+    }
+
+    /**
+     * Finds the options that best match the given query.
+     * @param query The query, which is usually the argument being completed
+     * @param limit The maximum number of options to return
+     * @return The best matching options, ranked from best to worst
+     */
+    public @NotNull List<String> search(@NotNull String query, int limit) {
+        if(limit <= 0 || options.length == 0) {
+            return Collections.emptyList();
+        }
+
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        TopK top = new TopK(Math.min(limit, options.length));
+
+        int prefixStart = firstNotBelow(lowerQuery);
+        int prefixEnd = firstWithoutPrefix(lowerQuery, prefixStart);
+        for(int i = prefixStart; i < prefixEnd; i++) {
+            top.offer(key(PREFIX_TIER, i));
+        }
+
+        //prefix matches outrank everything else, so the other options only matter if there is room left
+        if(prefixEnd - prefixStart < limit) {
+            long queryMask = mask(lowerQuery);
+            int maxEdits = Math.min(MAX_EDITS, lowerQuery.length() / 3);
+            int[][] rows = maxEdits > 0 ? new int[3][maxLength + 1] : null;
+
+            offerApproximate(lowerQuery, queryMask, maxEdits, rows, 0, prefixStart, top);
+            offerApproximate(lowerQuery, queryMask, maxEdits, rows, prefixEnd, options.length, top);
+        }
+
+        long[] ranked = top.sorted();
+        List<String> results = new ArrayList<>(ranked.length);
+        for(long key : ranked) {
+            results.add(options[(int)key]);
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns the number of options in this index.
+     * @return The number of options
+     */
+    public int size() {
+        return options.length;
+    }
+
+    //offers the options in [from, to), none of which start with the query, that match it approximately
+    private void offerApproximate(String query, long queryMask, int maxEdits, int[][] rows, int from, int to,
+                                  TopK top) {
+        for(int i = from; i < to; i++) {
+            String option = lowercase[i];
+
+            //each query character missing from the option needs at least one edit
+            int edits = maxEdits > 0 && option.length() >= query.length() - maxEdits &&
+                    Long.bitCount(queryMask & ~masks[i]) <= maxEdits ?
+                    prefixEditDistance(query, option, maxEdits, rows) : Integer.MAX_VALUE;
+
+            int tier;
+            if(edits == 1) {
+                tier = SINGLE_EDIT_TIER;
+            }
+            else if((queryMask & ~masks[i]) == 0 && isSubsequence(query, option)) {
+                tier = SUBSEQUENCE_TIER;
+            }
+            else if(edits <= maxEdits) {
+                tier = MULTIPLE_EDIT_TIER;
+            }
+            else {
+                continue;
+            }
+
+            top.offer(key(tier, i));
+        }
+    }
+
+    //options are sorted, so their index breaks ties alphabetically
+    private long key(int tier, int index) {
+        return ((long)tier << 56) | ((long)Math.min(lowercase[index].length(), 0xFFFFFF) << 32) | index;
+    }
+
+    //index of the first lowercase option that is not less than the query
+    private int firstNotBelow(String query) {
+        int low = 0;
+        int high = lowercase.length;
+
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+
+            if(lowercase[middle].compareTo(query) < 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    //index of the first lowercase option at or after start that does not start with the query
+    private int firstWithoutPrefix(String query, int start) {
+        int low = start;
+        int high = lowercase.length;
+
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+
+            if(lowercase[middle].startsWith(query)) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static long mask(String string) {
+        long mask = 0;
+
+        for(int i = 0; i < string.length(); i++) {
+            char character = string.charAt(i);
+
+            if(character >= 'a' && character <= 'z') {
+                mask |= 1L << (character - 'a');
+            }
+            else if(character >= '0' && character <= '9') {
+                mask |= 1L << (26 + character - '0');
+            }
+            else {
+                mask |= 1L << (36 + (character % 28)); //everything else shares a few buckets
+            }
+        }
+
+        return mask;
+    }
+
+    private static boolean isSubsequence(String query, String option) {
+        int index = 0;
+
+        for(int i = 0; i < option.length() && index < query.length(); i++) {
+            if(option.charAt(i) == query.charAt(index)) {
+                index++;
+            }
+        }
+
+        return index == query.length();
+    }
+
+    //smallest edit distance between the query and any prefix of the option, or more than maxEdits if it exceeds
+    //maxEdits. A cell more than maxEdits away from the diagonal has a distance above maxEdits, so only the band of
+    //cells within maxEdits of it is computed, and the cells just outside the band are set to maxEdits + 1.
+    private static int prefixEditDistance(String query, String option, int maxEdits, int[][] rows) {
+        int columns = option.length() + 1;
+        int outside = maxEdits + 1;
+        int[] beforePrevious = rows[0]; //needed for transpositions
+        int[] previous = rows[1];
+        int[] current = rows[2];
+
+        int firstEnd = Math.min(columns - 1, maxEdits);
+        for(int j = 0; j <= firstEnd; j++) {
+            previous[j] = j;
+        }
+
+        if(firstEnd + 1 < columns) {
+            previous[firstEnd + 1] = outside;
+        }
+
+        for(int i = 1; i <= query.length(); i++) {
+            int start = Math.max(1, i - maxEdits);
+            int end = Math.min(columns - 1, i + maxEdits);
+
+            current[0] = i;
+            if(start > 1) {
+                current[start - 1] = outside;
+            }
+
+            int rowMinimum = current[0];
+            char queryCharacter = query.charAt(i - 1);
+
+            for(int j = start; j <= end; j++) {
+                char optionCharacter = option.charAt(j - 1);
+                int distance = Math.min(previous[j - 1] + (optionCharacter == queryCharacter ? 0 : 1),
+                        Math.min(previous[j], current[j - 1]) + 1);
+
+                if(i > 1 && j > 1 && queryCharacter == option.charAt(j - 2) &&
+                        query.charAt(i - 2) == optionCharacter) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+
+                current[j] = distance;
+                rowMinimum = Math.min(rowMinimum, distance);
+            }
+
+            if(end + 1 < columns) {
+                current[end + 1] = outside;
+            }
+
+            if(rowMinimum > maxEdits) { //the smallest distance in a row never decreases in later rows
+                return maxEdits + 1;
+            }
+
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+
+        int result = outside;
+        int last = Math.min(columns - 1, query.length() + maxEdits);
+        for(int j = Math.max(0, query.length() - maxEdits); j <= last; j++) { //any prefix of the option may be chosen
+            result = Math.min(result, previous[j]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Keeps the smallest keys offered to it, using a bounded max-heap.
+     */
+    private static final class TopK {
+        private final long[] heap;
+        private int size;
+
+        private TopK(int capacity) {
+            this.heap = new long[capacity];
+        }
+
+        private void offer(long key) {
+            if(size < heap.length) {
+                int index = size++;
+                heap[index] = key;
+
+                while(index > 0 && heap[(index - 1) / 2] < heap[index]) {
+                    swap(index, (index - 1) / 2);
+                    index = (index - 1) / 2;
+                }
+            }
+            else if(key < heap[0]) {
+                heap[0] = key;
+                int index = 0;
+
+                while(true) {
+                    int largest = index;
+                    int left = 2 * index + 1;
+                    int right = left + 1;
+
+                    if(left < size && heap[left] > heap[largest]) {
+                        largest = left;
+                    }
+
+                    if(right < size && heap[right] > heap[largest]) {
+                        largest = right;
+                    }
+
+                    if(largest == index) {
+                        break;
+                    }
+
+                    swap(index, largest);
+                    index = largest;
+                }
+            }
+        }
+
+        private void swap(int first, int second) {
+            long temp = heap[first];
+            heap[first] = heap[second];
+            heap[second] = temp;
+        }
+
+        private long[] sorted() {
+            long[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -7,6 +7,10 @@ public interface ArgumentConverter<T> {
     /**
      * Converts the argument into a type of object, returning information about the success of the conversion, the
      * object itself, and a user-friendly error message in the event that the conversion fails.
+     *
+     * Within a single dispatch, the result of converting an input may be reused for every form that uses this
+     * converter on the same input. Implementations should therefore return the same result for the same input,
+     * regardless of the form.
      * @param argument The argument to be converted
      * @return A ConversionResult object representing the result of the conversion
      */
@@ -0,0 +1,17 @@
+package io.github.zap.regularcommands.converter;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Tests whether a single input argument is accepted by a {@link Parameter}. Implementations should be immutable and
+ * safe to share between threads.
+ */
+@FunctionalInterface
+public interface ArgumentMatcher {
+    /**
+     * Tests the given argument.
+     * @param argument The argument to test
+     * @return True if the whole argument is accepted, false otherwise
+     */
+    boolean matches(@NotNull String argument);
+}
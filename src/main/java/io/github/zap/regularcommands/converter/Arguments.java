@@ -0,0 +1,229 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.util.ArrayUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Holds the converted arguments of a command. Values produced by a {@link PrimitiveArgumentConverter} are stored
+ * without boxing and can be read with {@link Arguments#getInt(int)}, {@link Arguments#getLong(int)},
+ * {@link Arguments#getDouble(int)} or {@link Arguments#getBoolean(int)}. Every other value is stored as an object.
+ * Primitive values are only boxed if they are requested as objects, either through {@link Arguments#get(int)} or
+ * {@link Arguments#toArray()}.
+ */
+public class Arguments {
+    public static final Arguments EMPTY = new Arguments(0);
+
+    private static final byte OBJECT = 0;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+
+    private final Object[] objects;
+    private final long[] primitives;
+    private final byte[] kinds;
+    private Object[] array;
+
+    /**
+     * Creates a new Arguments object with the given number of slots, all of which are initially null.
+     * @param size The number of arguments
+     */
+    public Arguments(int size) {
+        this.objects = new Object[size];
+        this.primitives = new long[size];
+        this.kinds = new byte[size];
+    }
+
+    private Arguments(Object[] array) {
+        this.objects = array;
+        this.primitives = new long[array.length];
+        this.kinds = new byte[array.length]; //every slot holds an object
+        this.array = array;
+    }
+
+    /**
+     * Creates a new Arguments object backed by the given array, which is used to adapt boxed arguments to methods
+     * taking Arguments. Every value is stored as an object, and {@link Arguments#toArray()} returns the same array
+     * until the arguments are modified. Modifying the arguments also modifies the array.
+     * @param array The boxed arguments
+     * @return A new Arguments object
+     */
+    public static @NotNull Arguments of(@NotNull Object[] array) {
+        return new Arguments(Objects.requireNonNull(array, "array cannot be null"));
+    }
+
+    /**
+     * Returns the number of arguments.
+     * @return The number of arguments
+     */
+    public int size() {
+        return objects.length;
+    }
+
+    /**
+     * Stores an object at the given index.
+     * @param index The index of the argument
+     * @param value The converted value
+     */
+    public void set(int index, @Nullable Object value) {
+        objects[index] = value;
+        kinds[index] = OBJECT;
+        array = null;
+    }
+
+    /**
+     * Stores an int at the given index.
+     * @param index The index of the argument
+     * @param value The converted value
+     */
+    public void setInt(int index, int value) {
+        setPrimitive(index, value, INT);
+    }
+
+    /**
+     * Stores a long at the given index.
+     * @param index The index of the argument
+     * @param value The converted value
+     */
+    public void setLong(int index, long value) {
+        setPrimitive(index, value, LONG);
+    }
+
+    /**
+     * Stores a double at the given index.
+     * @param index The index of the argument
+     * @param value The converted value
+     */
+    public void setDouble(int index, double value) {
+        setPrimitive(index, Double.doubleToRawLongBits(value), DOUBLE);
+    }
+
+    /**
+     * Stores a boolean at the given index.
+     * @param index The index of the argument
+     * @param value The converted value
+     */
+    public void setBoolean(int index, boolean value) {
+        setPrimitive(index, value ? 1 : 0, BOOLEAN);
+    }
+
+    private void setPrimitive(int index, long bits, byte kind) {
+        objects[index] = null;
+        primitives[index] = bits;
+        kinds[index] = kind;
+        array = null;
+    }
+
+    /**
+     * Gets the argument at the given index as an object. Primitive values are boxed.
+     * @param index The index of the argument
+     * @return The converted value
+     */
+    public @Nullable Object get(int index) {
+        long bits = primitives[index];
+
+        switch (kinds[index]) {
+            case INT:
+                return (int)bits;
+            case LONG:
+                return bits;
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            case BOOLEAN:
+                return bits != 0;
+            case OBJECT:
+            default:
+                return objects[index];
+        }
+    }
+
+    /**
+     * Gets the argument at the given index as an int. Arguments that were stored as objects must be Numbers.
+     * @param index The index of the argument
+     * @return The converted value
+     */
+    public int getInt(int index) {
+        switch (kinds[index]) {
+            case INT:
+            case LONG:
+                return (int)primitives[index];
+            case DOUBLE:
+                return (int)Double.longBitsToDouble(primitives[index]);
+            default:
+                return ((Number)objects[index]).intValue();
+        }
+    }
+
+    /**
+     * Gets the argument at the given index as a long. Arguments that were stored as objects must be Numbers.
+     * @param index The index of the argument
+     * @return The converted value
+     */
+    public long getLong(int index) {
+        switch (kinds[index]) {
+            case INT:
+            case LONG:
+                return primitives[index];
+            case DOUBLE:
+                return (long)Double.longBitsToDouble(primitives[index]);
+            default:
+                return ((Number)objects[index]).longValue();
+        }
+    }
+
+    /**
+     * Gets the argument at the given index as a double. Arguments that were stored as objects must be Numbers.
+     * @param index The index of the argument
+     * @return The converted value
+     */
+    public double getDouble(int index) {
+        switch (kinds[index]) {
+            case INT:
+            case LONG:
+                return primitives[index];
+            case DOUBLE:
+                return Double.longBitsToDouble(primitives[index]);
+            default:
+                return ((Number)objects[index]).doubleValue();
+        }
+    }
+
+    /**
+     * Gets the argument at the given index as a boolean. Arguments that were stored as objects must be Booleans.
+     * @param index The index of the argument
+     * @return The converted value
+     */
+    public boolean getBoolean(int index) {
+        if(kinds[index] == BOOLEAN) {
+            return primitives[index] != 0;
+        }
+
+        return (Boolean)objects[index];
+    }
+
+    /**
+     * Returns every argument as an object array, boxing any primitive values. The array is created on the first call
+     * and the same array is returned afterwards, as long as the arguments are not modified.
+     * @return An array containing every argument
+     */
+    public @NotNull Object[] toArray() {
+        if(array == null) {
+            if(objects.length == 0) {
+                array = ArrayUtils.EMPTY_OBJECT_ARRAY;
+            }
+            else {
+                Object[] values = new Object[objects.length];
+                for(int i = 0; i < values.length; i++) {
+                    values[i] = get(i);
+                }
+
+                array = values;
+            }
+        }
+
+        return array;
+    }
+}
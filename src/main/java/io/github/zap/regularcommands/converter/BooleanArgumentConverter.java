@@ -0,0 +1,19 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.commands.CommandForm;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A PrimitiveArgumentConverter that produces a boolean. Implementations store their result using
+ * {@link Arguments#setBoolean(int, boolean)}.
+ */
+public interface BooleanArgumentConverter extends PrimitiveArgumentConverter<Boolean> {
+    @Override
+    default @NotNull ConversionResult<Boolean> convert(@NotNull CommandForm<?> form, @NotNull String argument) {
+        Arguments target = new Arguments(1);
+        Component errorMessage = convertInto(form, argument, target, 0);
+        return errorMessage == null ? ConversionResult.of(true, target.getBoolean(0), null) :
+                ConversionResult.of(false, null, errorMessage);
+    }
+}
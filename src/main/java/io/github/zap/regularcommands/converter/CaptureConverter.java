@@ -0,0 +1,22 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.commands.CommandForm;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Converts the result of matching a parameter's pattern, rather than the raw argument. It can read capture groups
+ * directly (ex. the three numbers of {@code ^(-?\d+),(-?\d+),(-?\d+)$}), and the argument is not scanned again after
+ * it has been matched. CaptureConverters are not ArgumentConverters: they are only accepted by the {@link Parameter}
+ * constructors that take a {@link java.util.regex.Pattern}, since they need its groups.
+ * @param <T> The type of the converted value
+ */
+@FunctionalInterface
+public interface CaptureConverter<T> {
+    /**
+     * Converts the match of an argument against the parameter's pattern.
+     * @param form The form whose argument is being converted
+     * @param match The successful match of the whole argument, whose groups are those of the parameter's pattern
+     * @return A ConversionResult object representing the result of the conversion
+     */
+    @NotNull ConversionResult<T> convertMatch(@NotNull CommandForm<?> form, @NotNull java.util.regex.MatchResult match);
+}
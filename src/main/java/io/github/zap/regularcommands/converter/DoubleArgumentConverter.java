@@ -0,0 +1,19 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.commands.CommandForm;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A PrimitiveArgumentConverter that produces a double. Implementations store their result using
+ * {@link Arguments#setDouble(int, double)}.
+ */
+public interface DoubleArgumentConverter extends PrimitiveArgumentConverter<Double> {
+    @Override
+    default @NotNull ConversionResult<Double> convert(@NotNull CommandForm<?> form, @NotNull String argument) {
+        Arguments target = new Arguments(1);
+        Component errorMessage = convertInto(form, argument, target, 0);
+        return errorMessage == null ? ConversionResult.of(true, target.getDouble(0), null) :
+                ConversionResult.of(false, null, errorMessage);
+    }
+}
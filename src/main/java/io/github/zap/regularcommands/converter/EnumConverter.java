@@ -0,0 +1,150 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.commands.CommandForm;
+import io.github.zap.regularcommands.commands.DefaultKeys;
+import io.github.zap.regularcommands.completer.ArgumentCompleter;
+import io.github.zap.regularcommands.completer.CompletionIndex;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Immutable ArgumentConverter that converts arguments to the constants of an enum, ignoring case. The constants are
+ * indexed once, when the converter is created: conversion is a single lookup in a table keyed by the lowercase
+ * constant names, and completion is a prefix search over the same names using a {@link CompletionIndex}.
+ * @param <E> The type of the enum
+ */
+public final class EnumConverter<E extends Enum<E>> implements ArgumentConverter<E> {
+    private final Class<E> type;
+    private final Map<String, E> lookup;
+    private final CompletionIndex completionIndex;
+    private final ArgumentCompleter completer;
+    private final String errorKey;
+
+    private EnumConverter(Class<E> type, Predicate<? super E> filter, String errorKey) {
+        Map<String, E> lookup = new HashMap<>();
+
+        for(E constant : type.getEnumConstants()) {
+            if(filter.test(constant)) {
+                E previous = lookup.put(constant.name().toLowerCase(Locale.ROOT), constant);
+
+                if(previous != null) {
+                    throw new IllegalArgumentException("enum constants " + previous.name() + " and " +
+                            constant.name() + " differ only in case");
+                }
+            }
+        }
+
+        this.type = type;
+        this.lookup = lookup;
+        this.completionIndex = CompletionIndex.of(lookup.keySet());
+        this.completer = new ArgumentCompleter((context, args) -> {
+            List<String> results = completionIndex.withPrefix(args[args.length - 1].toLowerCase(Locale.ROOT));
+            return results.size() == 0 ? null : results;
+        }, true);
+        this.errorKey = errorKey;
+    }
+
+    /**
+     * Creates a new EnumConverter that accepts every constant of the given enum.
+     * @param type The class of the enum
+     * @param <E> The type of the enum
+     * @return A new EnumConverter
+     * @throws IllegalArgumentException if two constants of the enum have names that differ only in case
+     */
+    public static <E extends Enum<E>> @NotNull EnumConverter<E> of(@NotNull Class<E> type) {
+        return of(type, constant -> true);
+    }
+
+    /**
+     * Creates a new EnumConverter that accepts the constants of the given enum that pass the filter. Constants that
+     * do not pass the filter are neither converted nor completed.
+     * @param type The class of the enum
+     * @param filter The filter used to select which constants are accepted
+     * @param <E> The type of the enum
+     * @return A new EnumConverter
+     * @throws IllegalArgumentException if two accepted constants have names that differ only in case
+     */
+    public static <E extends Enum<E>> @NotNull EnumConverter<E> of(@NotNull Class<E> type,
+                                                                   @NotNull Predicate<? super E> filter) {
+        return of(type, filter, DefaultKeys.ERROR_CONVERT_ENUM.key());
+    }
+
+    /**
+     * Creates a new EnumConverter that accepts the constants of the given enum that pass the filter, and uses the
+     * given translation key for its error messages. The message is passed the argument and the simple name of the
+     * enum class, in that order.
+     * @param type The class of the enum
+     * @param filter The filter used to select which constants are accepted
+     * @param errorKey The translation key of the message sent when an argument cannot be converted
+     * @param <E> The type of the enum
+     * @return A new EnumConverter
+     * @throws IllegalArgumentException if two accepted constants have names that differ only in case
+     */
+    public static <E extends Enum<E>> @NotNull EnumConverter<E> of(@NotNull Class<E> type,
+                                                                   @NotNull Predicate<? super E> filter,
+                                                                   @NotNull String errorKey) {
+        Objects.requireNonNull(type, "type cannot be null");
+        Objects.requireNonNull(filter, "filter cannot be null");
+        Objects.requireNonNull(errorKey, "errorKey cannot be null");
+
+        if(!type.isEnum()) { //guards against raw or unchecked calls
+            throw new IllegalArgumentException("type must be an enum class");
+        }
+
+        return new EnumConverter<>(type, filter, errorKey);
+    }
+
+    @Override
+    public @NotNull ConversionResult<E> convert(@NotNull CommandForm<?> form, @NotNull String argument) {
+        E constant = lookup.get(argument.toLowerCase(Locale.ROOT));
+
+        if(constant != null) {
+            return ConversionResult.of(true, constant, null);
+        }
+
+        return ConversionResult.of(false, null, Component.translatable(errorKey, Component.text(argument),
+                Component.text(type.getSimpleName())));
+    }
+
+    /**
+     * Gets the class of the enum this converter converts to.
+     * @return The class of the enum
+     */
+    public @NotNull Class<E> getType() {
+        return type;
+    }
+
+    /**
+     * Gets an index over the lowercase names of every constant this converter accepts.
+     * @return The completion index of this converter
+     */
+    public @NotNull CompletionIndex getCompletionIndex() {
+        return completionIndex;
+    }
+
+    /**
+     * Gets an async-safe ArgumentCompleter that completes the last argument with the lowercase names of every constant
+     * this converter accepts, ignoring the case of the argument. The completer is created once, along with this
+     * converter.
+     * @return The completer of this converter
+     */
+    public @NotNull ArgumentCompleter getCompleter() {
+        return completer;
+    }
+
+    /**
+     * Gets every constant this converter accepts, keyed by its lowercase name.
+     * @return An unmodifiable view of the lookup table of this converter
+     */
+    public @NotNull Map<String, E> getConstants() {
+        return Collections.unmodifiableMap(lookup);
+    }
+}
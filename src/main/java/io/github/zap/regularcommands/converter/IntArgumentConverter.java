@@ -0,0 +1,19 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.commands.CommandForm;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A PrimitiveArgumentConverter that produces an int. Implementations store their result using
+ * {@link Arguments#setInt(int, int)}.
+ */
+public interface IntArgumentConverter extends PrimitiveArgumentConverter<Integer> {
+    @Override
+    default @NotNull ConversionResult<Integer> convert(@NotNull CommandForm<?> form, @NotNull String argument) {
+        Arguments target = new Arguments(1);
+        Component errorMessage = convertInto(form, argument, target, 0);
+        return errorMessage == null ? ConversionResult.of(true, target.getInt(0), null) :
+                ConversionResult.of(false, null, errorMessage);
+    }
+}
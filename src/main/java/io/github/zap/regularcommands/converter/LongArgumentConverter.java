@@ -0,0 +1,19 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.commands.CommandForm;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A PrimitiveArgumentConverter that produces a long. Implementations store their result using
+ * {@link Arguments#setLong(int, long)}.
+ */
+public interface LongArgumentConverter extends PrimitiveArgumentConverter<Long> {
+    @Override
+    default @NotNull ConversionResult<Long> convert(@NotNull CommandForm<?> form, @NotNull String argument) {
+        Arguments target = new Arguments(1);
+        Component errorMessage = convertInto(form, argument, target, 0);
+        return errorMessage == null ? ConversionResult.of(true, target.getLong(0), null) :
+                ConversionResult.of(false, null, errorMessage);
+    }
+}
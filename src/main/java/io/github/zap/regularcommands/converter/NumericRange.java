@@ -0,0 +1,333 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.commands.DefaultKeys;
+import io.github.zap.regularcommands.util.Numbers;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable description of the numbers accepted by a numeric {@link Parameter}: every int or double from min to max,
+ * inclusive, that is min plus a multiple of step. A numeric parameter matches an argument by parsing it and checking
+ * the range, without using a regex, and converts it without boxing. Its completion options are generated from the
+ * range.
+ */
+public final class NumericRange {
+    /**
+     * Ranges containing at most this many values offer every value as a completion option. Larger ranges only offer
+     * their bounds.
+     */
+    public static final int MAX_ENUMERATED_VALUES = 32;
+
+    private static final long INVALID = Long.MIN_VALUE;
+    private static final long SATURATED = 1L << 40; //far outside of int range, but with room to spare
+    private static final double STEP_TOLERANCE = 1e-9;
+
+    private final boolean integral;
+    private final double min;
+    private final double max;
+    private final double step;
+    private final ArgumentMatcher matcher;
+    private final PrimitiveArgumentConverter<?> converter;
+    private final List<String> completionOptions;
+
+    private NumericRange(boolean integral, double min, double max, double step) {
+        this.integral = integral;
+        this.min = min;
+        this.max = max;
+        this.step = step;
+
+        if(integral) {
+            matcher = argument -> containsInt(parseInt(argument));
+            converter = (IntArgumentConverter)(form, argument, target, index) -> {
+                long value = parseInt(argument);
+
+                if(containsInt(value)) {
+                    target.setInt(index, (int)value);
+                    return null;
+                }
+
+                return errorMessage(argument);
+            };
+        }
+        else {
+            matcher = argument -> Numbers.isFloatingPoint(argument) && containsDouble(Double.parseDouble(argument));
+            converter = (DoubleArgumentConverter)(form, argument, target, index) -> {
+                if(Numbers.isFloatingPoint(argument)) {
+                    double value = Double.parseDouble(argument);
+
+                    if(containsDouble(value)) {
+                        target.setDouble(index, value);
+                        return null;
+                    }
+                }
+
+                return errorMessage(argument);
+            };
+        }
+
+        completionOptions = enumerate();
+    }
+
+    /**
+     * Creates a new NumericRange containing every int from min to max, inclusive, that is min plus a multiple of step.
+     * @param min The smallest value
+     * @param max The largest value
+     * @param step The distance between values, which must be positive
+     * @return A new NumericRange
+     * @throws IllegalArgumentException if min is greater than max, or step is not positive
+     */
+    public static @NotNull NumericRange ofInt(int min, int max, int step) {
+        if(min > max) {
+            throw new IllegalArgumentException("min cannot be greater than max");
+        }
+
+        if(step <= 0) {
+            throw new IllegalArgumentException("step must be positive");
+        }
+
+        return new NumericRange(true, min, max, step);
+    }
+
+    /**
+     * Creates a new NumericRange containing every int from min to max, inclusive.
+     * @param min The smallest value
+     * @param max The largest value
+     * @return A new NumericRange
+     * @throws IllegalArgumentException if min is greater than max
+     */
+    public static @NotNull NumericRange ofInt(int min, int max) {
+        return ofInt(min, max, 1);
+    }
+
+    /**
+     * Creates a new NumericRange containing every double from min to max, inclusive, that is min plus a multiple of
+     * step. Because of rounding, values within a tiny fraction of a step of a multiple are accepted.
+     * @param min The smallest value
+     * @param max The largest value
+     * @param step The distance between values, or 0 to accept every value between min and max
+     * @return A new NumericRange
+     * @throws IllegalArgumentException if min or max are not finite, min is greater than max, or step is negative or
+     * not finite
+     */
+    public static @NotNull NumericRange ofDouble(double min, double max, double step) {
+        if(!Double.isFinite(min) || !Double.isFinite(max)) {
+            throw new IllegalArgumentException("min and max must be finite");
+        }
+
+        if(min > max) {
+            throw new IllegalArgumentException("min cannot be greater than max");
+        }
+
+        if(!(step >= 0) || step == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("step must be finite and not negative");
+        }
+
+        return new NumericRange(false, min, max, step);
+    }
+
+    /**
+     * Creates a new NumericRange containing every double from min to max, inclusive.
+     * @param min The smallest value
+     * @param max The largest value
+     * @return A new NumericRange
+     * @throws IllegalArgumentException if min or max are not finite, or min is greater than max
+     */
+    public static @NotNull NumericRange ofDouble(double min, double max) {
+        return ofDouble(min, max, 0);
+    }
+
+    //parses like Integer.parseInt, but returns INVALID instead of throwing; values too large for an int saturate
+    private static long parseInt(String argument) {
+        int length = argument.length();
+        if(length == 0) {
+            return INVALID;
+        }
+
+        int index = 0;
+        char first = argument.charAt(0);
+        boolean negative = first == '-';
+
+        if(negative || first == '+') {
+            if(length == 1) {
+                return INVALID;
+            }
+
+            index++;
+        }
+
+        long value = 0;
+        for(; index < length; index++) {
+            int digit = Character.digit(argument.charAt(index), 10);
+
+            if(digit < 0) {
+                return INVALID;
+            }
+
+            value = Math.min(value * 10 + digit, SATURATED);
+        }
+
+        return negative ? -value : value;
+    }
+
+    private boolean containsInt(long value) {
+        return value != INVALID && value >= min && value <= max && (value - (long)min) % (long)step == 0;
+    }
+
+    private boolean containsDouble(double value) {
+        if(!(value >= min && value <= max)) { //also rejects NaN
+            return false;
+        }
+
+        if(step == 0) {
+            return true;
+        }
+
+        double steps = (value - min) / step;
+        return Math.abs(steps - Math.rint(steps)) <= STEP_TOLERANCE * Math.max(1, steps);
+    }
+
+    private Component errorMessage(String argument) {
+        return Component.translatable(DefaultKeys.ERROR_CONVERT_RANGE.key(), Component.text(argument),
+                Component.text(format(BigDecimal.valueOf(min))), Component.text(format(BigDecimal.valueOf(max))));
+    }
+
+    private List<String> enumerate() {
+        List<String> options = new ArrayList<>();
+        BigDecimal first = BigDecimal.valueOf(min);
+        BigDecimal last = BigDecimal.valueOf(max);
+
+        if(step != 0 && (max - min) / step < MAX_ENUMERATED_VALUES) {
+            BigDecimal increment = BigDecimal.valueOf(step);
+
+            for(BigDecimal value = first; value.compareTo(last) <= 0; value = value.add(increment)) {
+                options.add(format(value));
+            }
+        }
+        else {
+            options.add(format(first));
+
+            if(max != min) {
+                options.add(format(last));
+            }
+        }
+
+        return List.copyOf(options);
+    }
+
+    private String format(BigDecimal value) {
+        return integral ? Long.toString(value.longValue()) : value.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Tests whether this range contains ints, rather than doubles.
+     * @return true if this range contains ints, false if it contains doubles
+     */
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    /**
+     * Gets the smallest value in this range.
+     * @return The smallest value
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Gets the largest value in this range.
+     * @return The largest value
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the distance between values in this range.
+     * @return The step of this range, which is 0 if every double between min and max is accepted
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /**
+     * Gets an ArgumentMatcher that accepts exactly the numbers in this range.
+     * @return The matcher of this range
+     */
+    public @NotNull ArgumentMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Gets a converter that stores numbers in this range without boxing. It is an {@link IntArgumentConverter} if this
+     * range is integral, and a {@link DoubleArgumentConverter} otherwise.
+     * @return The converter of this range
+     */
+    public @NotNull PrimitiveArgumentConverter<?> getConverter() {
+        return converter;
+    }
+
+    /**
+     * Gets the completion options generated from this range: every value if there are at most
+     * {@link NumericRange#MAX_ENUMERATED_VALUES} of them, or otherwise just the bounds.
+     * @return An unmodifiable list of completion options
+     */
+    public @NotNull List<String> getCompletionOptions() {
+        return completionOptions;
+    }
+
+    /**
+     * Tests whether some argument is provably accepted by both this range and the other range. Only a few candidate
+     * values are tested, so this method may return false for ranges that do overlap.
+     * @param other The other range
+     * @return true if the ranges are known to overlap, false otherwise
+     */
+    public boolean overlaps(@NotNull NumericRange other) {
+        if(equals(other)) {
+            return true;
+        }
+
+        if(integral && other.integral) {
+            //the smallest value of the range with the larger step that is not below either minimum
+            NumericRange stepped = step >= other.step ? this : other;
+            long low = (long)Math.max(min, other.min);
+            long candidate = low + Math.floorMod((long)stepped.min - low, (long)stepped.step);
+            return containsInt(candidate) && other.containsInt(candidate);
+        }
+        else if(integral) { //the minimum is always a value, and ints are valid doubles
+            return other.containsDouble(min);
+        }
+        else if(other.integral) {
+            return containsDouble(other.min);
+        }
+
+        return containsDouble(other.min) || other.containsDouble(min);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(this == other) {
+            return true;
+        }
+
+        if(!(other instanceof NumericRange)) {
+            return false;
+        }
+
+        NumericRange range = (NumericRange)other;
+        return integral == range.integral && Double.compare(min, range.min) == 0 &&
+                Double.compare(max, range.max) == 0 && Double.compare(step, range.step) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Boolean.hashCode(integral);
+        result = 31 * result + Double.hashCode(min);
+        result = 31 * result + Double.hashCode(max);
+        return 31 * result + Double.hashCode(step);
+    }
+}
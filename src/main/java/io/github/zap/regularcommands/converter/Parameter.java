@@ -1,11 +1,17 @@
 package io.github.zap.regularcommands.converter;
 
+import io.github.zap.regularcommands.completer.CompletionIndex;
+import io.github.zap.regularcommands.completer.FuzzyIndex;
+import io.github.zap.regularcommands.util.Matchers;
 import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -26,46 +32,126 @@ public class Parameter {
         OPTIONAL
     }
 
+    /**
+     * Matches the parameter's pattern for a {@link CaptureConverter}. The groups of the most recent successful match
+     * on each thread are kept, so conversion can reuse the match made while testing the argument.
+     */
+    private static final class GroupMatcher implements ArgumentMatcher {
+        private static final class State {
+            private final Matcher matcher;
+            private String argument;
+            private MatchResult match;
+
+            private State(Matcher matcher) {
+                this.matcher = matcher;
+            }
+        }
+
+        private final ThreadLocal<State> state;
+
+        private GroupMatcher(Pattern pattern) {
+            this.state = ThreadLocal.withInitial(() -> new State(pattern.matcher("")));
+        }
+
+        private MatchResult match(String argument) {
+            State state = this.state.get();
+
+            if(state.argument != argument) { //identity check; this is the very string that was just tested
+                state.match = state.matcher.reset(argument).matches() ? state.matcher.toMatchResult() : null;
+                state.argument = argument;
+            }
+
+            return state.match;
+        }
+
+        @Override
+        public boolean matches(@NotNull String argument) {
+            return match(argument) != null;
+        }
+    }
+
     private final Pattern pattern;
+    private final NumericRange range;
+    private final ArgumentMatcher matcher;
     private final String match;
     private final Component usage;
     private final ArgumentConverter<Object> converter;
+    private final CaptureConverter<Object> captureConverter;
     private final List<String> staticCompletionOptions;
+    private final CompletionIndex completionIndex;
+    private volatile FuzzyIndex fuzzyIndex; //built on first use, since most parameters are never fuzzy-completed
 
     private final ParameterType type;
     private final String defaultValue;
 
-    @SuppressWarnings("unchecked")
     private Parameter(String definition, Component usage, String defaultValue, ArgumentConverter<?> converter,
                       List<String> staticCompletionOptions, ParameterType type) {
+        this(definition, null, usage, defaultValue, converter, null, staticCompletionOptions, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Parameter(String definition, Pattern pattern, Component usage, String defaultValue,
+                      ArgumentConverter<?> converter, CaptureConverter<?> captureConverter,
+                      List<String> staticCompletionOptions, ParameterType type) {
+        List<String> options = staticCompletionOptions == null ? null : List.copyOf(staticCompletionOptions);
+        boolean capturing = captureConverter != null;
+        this.range = null;
+
         switch (type) {
             case SIMPLE:
                 this.pattern = null;
                 this.match = Objects.requireNonNull(definition, "definition cannot be null for ParameterType.SIMPLE");
+                this.matcher = Matchers.literal(match);
                 this.staticCompletionOptions = List.of(definition);
                 this.defaultValue = null;
                 break;
             case OPTIONAL:
-                this.pattern = Pattern.compile(definition);
+                this.pattern = pattern != null ? pattern : Pattern.compile(definition);
+                this.matcher = capturing ? new GroupMatcher(this.pattern) : Matchers.compile(this.pattern);
                 this.match = null;
-                this.staticCompletionOptions = staticCompletionOptions;
+                this.staticCompletionOptions = options;
                 this.defaultValue = Objects.requireNonNull(defaultValue, "defaultValue cannot be null for ParameterType.OPTIONAL");
                 break;
             case STANDARD:
             case VARARG:
             default:
-                this.pattern = Pattern.compile(definition);
+                this.pattern = pattern != null ? pattern : Pattern.compile(definition);
+                this.matcher = capturing ? new GroupMatcher(this.pattern) : Matchers.compile(this.pattern);
                 this.match = null;
-                this.staticCompletionOptions = staticCompletionOptions;
+                this.staticCompletionOptions = options;
                 this.defaultValue = null;
                 break;
         }
 
+        if(usage == null && type == ParameterType.SIMPLE) { //simple parameters are their own usage
+            usage = Component.text(match);
+        }
+
         this.usage = Objects.requireNonNull(usage, "usage cannot be null for ParameterType.OPTIONAL");
+        this.completionIndex = this.staticCompletionOptions == null ? CompletionIndex.EMPTY :
+                CompletionIndex.of(this.staticCompletionOptions);
         this.converter = (ArgumentConverter<Object>) converter;
+        this.captureConverter = (CaptureConverter<Object>) captureConverter;
         this.type = type;
     }
 
+    @SuppressWarnings("unchecked")
+    private Parameter(NumericRange range, Component usage, String defaultValue, ParameterType type) {
+        this.pattern = null;
+        this.range = Objects.requireNonNull(range, "range cannot be null");
+        this.matcher = range.getMatcher();
+        this.match = null;
+        this.usage = Objects.requireNonNull(usage, "usage cannot be null");
+        this.converter = (ArgumentConverter<Object>) range.getConverter();
+        this.captureConverter = null;
+        this.staticCompletionOptions = range.getCompletionOptions();
+        this.completionIndex = CompletionIndex.of(staticCompletionOptions);
+        this.type = type;
+
+        this.defaultValue = type != ParameterType.OPTIONAL ? null : Objects.requireNonNull(defaultValue,
+                "defaultValue cannot be null for ParameterType.OPTIONAL");
+    }
+
     /**
      * Creates a new optional parameter.
      * @param regex The regex used to match this parameter
@@ -242,6 +328,97 @@ public class Parameter {
         this(regex, usage, null, null, null, ParameterType.STANDARD);
     }
 
+    /**
+     * Creates a new numeric vararg or standard parameter, which accepts the numbers in the given range. Arguments are
+     * matched and converted by parsing them, without using a regex, and are stored without boxing: read them using
+     * {@link Arguments#getInt(int)} or {@link Arguments#getDouble(int)}, depending on the type of the range. The
+     * completion options of the parameter are generated from the range.
+     * @param range The numbers accepted by this parameter
+     * @param usage The usage of this parameter, which should explain what the parameter does in a few words
+     * @param isVararg Whether or not the parameter is variable-argument (if it can match any number of user arguments)
+     */
+    public Parameter(NumericRange range, Component usage, boolean isVararg) {
+        this(range, usage, null, isVararg ? ParameterType.VARARG : ParameterType.STANDARD);
+    }
+
+    /**
+     * Creates a new numeric standard parameter, which accepts the numbers in the given range. See
+     * {@link Parameter#Parameter(NumericRange, Component, boolean)}.
+     * @param range The numbers accepted by this parameter
+     * @param usage The usage of this parameter, which should explain what the parameter does in a few words
+     */
+    public Parameter(NumericRange range, Component usage) {
+        this(range, usage, null, ParameterType.STANDARD);
+    }
+
+    /**
+     * Creates a new numeric optional parameter, which accepts the numbers in the given range. See
+     * {@link Parameter#Parameter(NumericRange, Component, boolean)}.
+     * @param range The numbers accepted by this parameter
+     * @param usage The usage of this parameter, which should explain what the parameter does in a few words
+     * @param defaultValue The value that will be used if the user does not supply this parameter
+     */
+    public Parameter(NumericRange range, Component usage, String defaultValue) {
+        this(range, usage, defaultValue, ParameterType.OPTIONAL);
+    }
+
+    /**
+     * Creates a new vararg or standard parameter, whose arguments are converted from the groups of the pattern's match
+     * by a {@link CaptureConverter}. The match made while testing an argument is reused for its conversion, so the
+     * argument is not scanned again.
+     * @param pattern The pattern used to match this parameter, whose groups are passed to the converter
+     * @param usage The usage of this parameter, which should explain what the parameter does in a few words
+     * @param converter The converter that will be used to convert the match of user input
+     * @param staticCompletionOptions A list of completion options that will appear when a user tries to tab complete
+     *                                on this parameter
+     * @param isVararg Whether or not the parameter is variable-argument (if it can match any number of user arguments)
+     */
+    public Parameter(@NotNull Pattern pattern, Component usage, @NotNull CaptureConverter<?> converter,
+                     List<String> staticCompletionOptions, boolean isVararg) {
+        this(null, Objects.requireNonNull(pattern, "pattern cannot be null"), usage, null,
+                null, Objects.requireNonNull(converter, "converter cannot be null"), staticCompletionOptions,
+                isVararg ? ParameterType.VARARG : ParameterType.STANDARD);
+    }
+
+    /**
+     * Creates a new vararg or standard parameter using a {@link CaptureConverter}. See
+     * {@link Parameter#Parameter(Pattern, Component, CaptureConverter, List, boolean)}.
+     * @param pattern The pattern used to match this parameter, whose groups are passed to the converter
+     * @param usage The usage of this parameter, which should explain what the parameter does in a few words
+     * @param converter The converter that will be used to convert the match of user input
+     * @param isVararg Whether or not the parameter is variable-argument (if it can match any number of user arguments)
+     */
+    public Parameter(@NotNull Pattern pattern, Component usage, @NotNull CaptureConverter<?> converter,
+                     boolean isVararg) {
+        this(pattern, usage, converter, null, isVararg);
+    }
+
+    /**
+     * Creates a new standard parameter using a {@link CaptureConverter}. See
+     * {@link Parameter#Parameter(Pattern, Component, CaptureConverter, List, boolean)}.
+     * @param pattern The pattern used to match this parameter, whose groups are passed to the converter
+     * @param usage The usage of this parameter, which should explain what the parameter does in a few words
+     * @param converter The converter that will be used to convert the match of user input
+     */
+    public Parameter(@NotNull Pattern pattern, Component usage, @NotNull CaptureConverter<?> converter) {
+        this(pattern, usage, converter, null, false);
+    }
+
+    /**
+     * Creates a new optional parameter using a {@link CaptureConverter}. The default value must match the pattern, as
+     * it is converted the same way as user input. See
+     * {@link Parameter#Parameter(Pattern, Component, CaptureConverter, List, boolean)}.
+     * @param pattern The pattern used to match this parameter, whose groups are passed to the converter
+     * @param usage The usage of this parameter, which should explain what the parameter does in a few words
+     * @param defaultValue The value that will be used if the user does not supply this parameter
+     * @param converter The converter that will be used to convert the match of user input
+     */
+    public Parameter(@NotNull Pattern pattern, Component usage, String defaultValue,
+                     @NotNull CaptureConverter<?> converter) {
+        this(null, Objects.requireNonNull(pattern, "pattern cannot be null"), usage, defaultValue,
+                null, Objects.requireNonNull(converter, "converter cannot be null"), null, ParameterType.OPTIONAL);
+    }
+
     /**
      * Creates a new simple parameter.
      * along with a converter to convert user input.
@@ -254,20 +431,71 @@ public class Parameter {
 
     /**
      * Gets the converter used to transform the argument string.
-     * @return This parameter's associated converter
+     * @return This parameter's associated converter. This will be null if this Parameter has no converter, or is
+     * capturing
      */
     public ArgumentConverter<?> getConverter() {
         return converter;
     }
 
+    /**
+     * Gets the converter used to transform the groups of the pattern's match.
+     * @return This parameter's CaptureConverter, or null if it is not capturing (see {@link Parameter#isCapturing()})
+     */
+    public @Nullable CaptureConverter<?> getCaptureConverter() {
+        return captureConverter;
+    }
+
     /**
      * Gets the Pattern used to match input arguments.
-     * @return The pattern used to test user input. This will be null if this Parameter is simple
+     * @return The pattern used to test user input. This will be null if this Parameter is simple or numeric
      */
     public Pattern getPattern() {
         return pattern;
     }
 
+    /**
+     * Gets the range of numbers accepted by this parameter.
+     * @return The range of this parameter, or null if it is not numeric
+     */
+    public @Nullable NumericRange getRange() {
+        return range;
+    }
+
+    /**
+     * Gets the ArgumentMatcher used to test input arguments. For simple parameters, this performs an equality check
+     * against {@link Parameter#getMatch()}. For numeric parameters, it accepts the numbers in
+     * {@link Parameter#getRange()}; otherwise, it accepts the same arguments as {@link Parameter#getPattern()}.
+     * @return The matcher used to test user input
+     */
+    public @NotNull ArgumentMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Tests whether this parameter converts the groups of its pattern's match using a {@link CaptureConverter}.
+     * @return true if this parameter has a CaptureConverter, false otherwise
+     */
+    public boolean isCapturing() {
+        return captureConverter != null;
+    }
+
+    /**
+     * Matches the argument against this parameter's pattern, returning its groups. If the same String instance was the
+     * last argument tested by {@link Parameter#getMatcher()} on the current thread, the result of that test is reused
+     * rather than matching the argument again.
+     * @param argument The argument to match
+     * @return The result of the match, or null if the whole argument does not match
+     * @throws IllegalStateException if this parameter is not capturing (see {@link Parameter#isCapturing()})
+     */
+    public @Nullable MatchResult matchGroups(@NotNull String argument) {
+        if(!(matcher instanceof GroupMatcher)) {
+            throw new IllegalStateException("parameter is not capturing");
+        }
+
+        return ((GroupMatcher)matcher).match(argument);
+    }
+
     /**
      * Returns the string used to perform a simple equality check on the argument.
      * @return If this Parameter is simple, a String that should be used to check for equality with the argument
@@ -288,6 +516,31 @@ public class Parameter {
         return staticCompletionOptions == null ? new ArrayList<>() : new ArrayList<>(staticCompletionOptions);
     }
 
+    /**
+     * Gets an index over the static tab completion options for this parameter, which can efficiently find every option
+     * starting with a given prefix.
+     * @return The index of the built-in tab completion options for this parameter
+     */
+    public @NotNull CompletionIndex getCompletionIndex() {
+        return completionIndex;
+    }
+
+    /**
+     * Gets an index over the static tab completion options for this parameter, which supports approximate matching.
+     * The index is built the first time it is requested.
+     * @return The fuzzy index of the built-in tab completion options for this parameter
+     */
+    public @NotNull FuzzyIndex getFuzzyIndex() {
+        FuzzyIndex index = fuzzyIndex;
+
+        if(index == null) { //benign race; concurrent callers build equal indexes
+            fuzzyIndex = index = staticCompletionOptions == null ? FuzzyIndex.EMPTY :
+                    FuzzyIndex.of(staticCompletionOptions);
+        }
+
+        return index;
+    }
+
     /**
      * Returns the type of this parameter.
      * @return the type of this parameter
@@ -0,0 +1,25 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.commands.CommandForm;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An ArgumentConverter that can store its result directly into an {@link Arguments} slot, without boxing. Forms read
+ * such values back using the matching primitive getter, ex. {@link Arguments#getInt(int)}. Implement one of the
+ * specialized subinterfaces rather than this one.
+ * @param <T> The boxed type of the converted value
+ */
+public interface PrimitiveArgumentConverter<T> extends ArgumentConverter<T> {
+    /**
+     * Converts the argument and stores the result at the given index of target.
+     * @param form The form whose argument is being converted
+     * @param argument The argument to be converted
+     * @param target The Arguments object to store the result into
+     * @param index The index at which to store the result
+     * @return null if the conversion succeeded, or a user-friendly error message if it failed
+     */
+    @Nullable Component convertInto(@NotNull CommandForm<?> form, @NotNull String argument, @NotNull Arguments target,
+                                    int index);
+}
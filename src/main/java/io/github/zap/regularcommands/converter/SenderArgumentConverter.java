@@ -0,0 +1,33 @@
+package io.github.zap.regularcommands.converter;
+
+import io.github.zap.regularcommands.commands.CommandForm;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An ArgumentConverter whose result depends on the sender of the command, for example one that should not resolve
+ * players the sender cannot see. When no sender is known (such as when a form is matched through
+ * {@link CommandForm#matches(String[])}), the sender is null.
+ *
+ * Conversions are still shared between forms during a single dispatch, which is fine since every form in a dispatch
+ * is matched for the same sender.
+ * @param <T> The type of the converted value
+ */
+@FunctionalInterface
+public interface SenderArgumentConverter<T> extends ArgumentConverter<T> {
+    /**
+     * Converts the argument for the given sender.
+     * @param form The form whose argument is being converted
+     * @param sender The sender of the command, or null if it is not known
+     * @param argument The argument to be converted
+     * @return A ConversionResult object representing the result of the conversion
+     */
+    @NotNull ConversionResult<T> convert(@NotNull CommandForm<?> form, @Nullable CommandSender sender,
+                                         @NotNull String argument);
+
+    @Override
+    default @NotNull ConversionResult<T> convert(@NotNull CommandForm<?> form, @NotNull String argument) {
+        return convert(form, null, argument);
+    }
+}
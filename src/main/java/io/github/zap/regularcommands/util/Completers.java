@@ -1,34 +1,120 @@
 package io.github.zap.regularcommands.util;
 
 import io.github.zap.regularcommands.commands.CommandForm;
+import io.github.zap.regularcommands.commands.Context;
 import io.github.zap.regularcommands.completer.ArgumentCompleter;
+import io.github.zap.regularcommands.completer.CompletionIndex;
+import io.github.zap.regularcommands.completer.CompletionSink;
+import io.github.zap.regularcommands.completer.CompletionStep;
+import io.github.zap.regularcommands.completer.FuzzyIndex;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Utility class for things related to ArgumentCompleters. Includes a default completer that looks at the form's
- * static completion options and narrows them down based on what the user is typing (last argument).
+ * static completion options and narrows them down based on what the user is typing (last argument), using the
+ * parameter's {@link CompletionIndex}. The default completer is async-safe.
+ *
+ * The fuzzy completers tolerate mistakes in case, skipped characters and small typos, and return a ranked selection of
+ * the best matches; see {@link FuzzyIndex}.
  */
 public final class Completers {
+    /**
+     * The number of completions returned by {@link Completers#FUZZY_PARAMETER_COMPLETER}.
+     */
+    public static final int DEFAULT_FUZZY_LIMIT = 20;
+
     public static final ArgumentCompleter PARAMETER_COMPLETER = new ArgumentCompleter((context, args) -> {
         CommandForm<?> form = context.getForm();
         int length = form.size();
 
         if(length > 0) {
-            List<String> options = form.getParameter(Math.min(length - 1, args.length - 1)).getStaticCompletionOptions();
-            String startsWith = args[args.length - 1];
-
-            List<String> results = new ArrayList<>();
-            for(String option : options) {
-                if(option.startsWith(startsWith)) {
-                    results.add(option);
-                }
-            }
-
+            CompletionIndex index = form.getParameter(Math.min(length - 1, args.length - 1)).getCompletionIndex();
+            List<String> results = index.withPrefix(args[args.length - 1]);
             return results.size() == 0 ? null : results;
         }
 
         return null;
-    });
+    }, true);
+
+    /**
+     * Completes the last argument with the names of online players, using the sorted index kept by
+     * {@link ServerLookup}. Only the players whose names start with the argument are visited, and no more are visited
+     * once the completion limit is reached. Players hidden from the sender (see {@link Player#canSee(Player)}) are
+     * left out, which costs one canSee call per visited player. This completer is async-safe, although a player whose
+     * visibility changes during an asynchronous completion may be filtered using its old visibility.
+     */
+    public static final ArgumentCompleter PLAYER_COMPLETER = new ArgumentCompleter(new CompletionStep() {
+        @Override
+        public List<String> complete(@NotNull Context context, @NotNull String[] args) {
+            return ServerLookup.playersWithPrefix(args[args.length - 1], context.getSender());
+        }
+
+        @Override
+        public void completeInto(@NotNull Context context, @NotNull String[] args, @NotNull CompletionSink sink) {
+            ServerLookup.completePlayers(args[args.length - 1], context.getSender(), sink);
+        }
+    }, true);
+
+    /**
+     * Completes the last argument with the names of loaded worlds, using the sorted index kept by
+     * {@link ServerLookup}. This completer is async-safe.
+     */
+    public static final ArgumentCompleter WORLD_COMPLETER = new ArgumentCompleter(new CompletionStep() {
+        @Override
+        public List<String> complete(@NotNull Context context, @NotNull String[] args) {
+            return ServerLookup.worldsWithPrefix(args[args.length - 1]);
+        }
+
+        @Override
+        public void completeInto(@NotNull Context context, @NotNull String[] args, @NotNull CompletionSink sink) {
+            ServerLookup.completeWorlds(args[args.length - 1], sink);
+        }
+    }, true);
+
+    /**
+     * Works like {@link Completers#PARAMETER_COMPLETER}, but uses the parameter's {@link FuzzyIndex} and returns up to
+     * {@link Completers#DEFAULT_FUZZY_LIMIT} of the best matching options. This completer is async-safe.
+     */
+    public static final ArgumentCompleter FUZZY_PARAMETER_COMPLETER = newFuzzyParameterCompleter(DEFAULT_FUZZY_LIMIT);
+
+    /**
+     * Creates an async-safe ArgumentCompleter that completes using the fuzzy index of the form's parameters, returning
+     * up to the given number of the best matching options.
+     * @param limit The maximum number of completions
+     * @return A new ArgumentCompleter
+     */
+    public static @NotNull ArgumentCompleter newFuzzyParameterCompleter(int limit) {
+        return new ArgumentCompleter((context, args) -> {
+            CommandForm<?> form = context.getForm();
+            int length = form.size();
+
+            if(length > 0) {
+                FuzzyIndex index = form.getParameter(Math.min(length - 1, args.length - 1)).getFuzzyIndex();
+                List<String> results = index.search(args[args.length - 1], limit);
+                return results.size() == 0 ? null : results;
+            }
+
+            return null;
+        }, true);
+    }
+
+    /**
+     * Creates an async-safe ArgumentCompleter that completes the last argument using the given options, returning up
+     * to the given number of the best matching options. The options are indexed once, when this method is called.
+     * @param options The options to complete
+     * @param limit The maximum number of completions
+     * @return A new ArgumentCompleter
+     */
+    public static @NotNull ArgumentCompleter newFuzzyCompleter(@NotNull Collection<String> options, int limit) {
+        FuzzyIndex index = FuzzyIndex.of(options);
+
+        return new ArgumentCompleter((context, args) -> {
+            List<String> results = index.search(args[args.length - 1], limit);
+            return results.size() == 0 ? null : results;
+        }, true);
+    }
 }
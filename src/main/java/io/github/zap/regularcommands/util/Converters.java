@@ -2,175 +2,448 @@ package io.github.zap.regularcommands.util;
 
 import io.github.zap.regularcommands.commands.DefaultKeys;
 import io.github.zap.regularcommands.converter.ArgumentConverter;
+import io.github.zap.regularcommands.converter.Arguments;
+import io.github.zap.regularcommands.converter.BooleanArgumentConverter;
 import io.github.zap.regularcommands.converter.ConversionResult;
+import io.github.zap.regularcommands.converter.DoubleArgumentConverter;
+import io.github.zap.regularcommands.converter.EnumConverter;
+import io.github.zap.regularcommands.converter.IntArgumentConverter;
+import io.github.zap.regularcommands.converter.LongArgumentConverter;
+import io.github.zap.regularcommands.converter.SenderArgumentConverter;
 import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.function.IntFunction;
 
 /**
- * Utility class containing built-in converters and helper methods.
+ * Utility class containing built-in converters and helper methods. The int, long, double and boolean converters are
+ * {@link io.github.zap.regularcommands.converter.PrimitiveArgumentConverter}s, so their values are stored without
+ * boxing. They are available both with their primitive type (ex. {@link Converters#INT_PRIMITIVE_CONVERTER}) and as
+ * plain ArgumentConverters (ex. {@link Converters#INTEGER_CONVERTER}). None of the numeric converters rely on catching
+ * NumberFormatException to detect invalid input; see {@link Numbers}.
  */
 public final class Converters {
     public final static ArgumentConverter<BigDecimal> BIG_DECIMAL_CONVERTER = (form, argument) -> {
-        try {
+        if(Numbers.isBigDecimal(argument)) {
             return ConversionResult.of(true, new BigDecimal(argument), null);
         }
-        catch(NumberFormatException e) {
-            return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_BIG_DECIMAL.key(),
-                    Component.text(argument)));
-        }
+
+        return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_BIG_DECIMAL.key(),
+                Component.text(argument)));
     };
 
     public final static ArgumentConverter<BigInteger> BIG_INTEGER_CONVERTER = (form, argument) -> {
-        try {
+        if(Numbers.isBigInteger(argument)) {
             return ConversionResult.of(true, new BigInteger(argument), null);
         }
-        catch(NumberFormatException e) {
-            return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_BIG_INTEGER.key(),
-                    Component.text(argument)));
-        }
+
+        return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_BIG_INTEGER.key(),
+                Component.text(argument)));
     };
 
-    public final static ArgumentConverter<Long> LONG_CONVERTER = (form, argument) -> {
-        try {
-            return ConversionResult.of(true, Long.parseLong(argument), null);
-        }
-        catch(NumberFormatException e) {
-            return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_LONG.key(),
-                    Component.text(argument)));
+    /**
+     * Converts arguments to longs, storing them without boxing. Forms extending
+     * {@link io.github.zap.regularcommands.commands.PrimitiveCommandForm} read them using
+     * {@link Arguments#getLong(int)}.
+     */
+    public final static LongArgumentConverter LONG_PRIMITIVE_CONVERTER = (form, argument, target, index) -> {
+        if(Numbers.isIntegral(argument, Long.MIN_VALUE, Long.MAX_VALUE)) {
+            target.setLong(index, Long.parseLong(argument));
+            return null;
         }
+
+        return Component.translatable(DefaultKeys.ERROR_CONVERT_LONG.key(), Component.text(argument));
     };
 
-    public final static ArgumentConverter<Integer> INTEGER_CONVERTER = (form, argument) -> {
-        try {
-            return ConversionResult.of(true, Integer.parseInt(argument), null);
-        }
-        catch(NumberFormatException e) {
-            return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_INTEGER.key(),
-                    Component.text(argument)));
+    /**
+     * Converts arguments to Longs. This is {@link Converters#LONG_PRIMITIVE_CONVERTER}, typed as a plain
+     * ArgumentConverter.
+     */
+    public final static ArgumentConverter<Long> LONG_CONVERTER = LONG_PRIMITIVE_CONVERTER;
+
+    /**
+     * Converts arguments to ints, storing them without boxing. Forms extending
+     * {@link io.github.zap.regularcommands.commands.PrimitiveCommandForm} read them using
+     * {@link Arguments#getInt(int)}.
+     */
+    public final static IntArgumentConverter INT_PRIMITIVE_CONVERTER = (form, argument, target, index) -> {
+        if(Numbers.isIntegral(argument, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            target.setInt(index, Integer.parseInt(argument));
+            return null;
         }
+
+        return Component.translatable(DefaultKeys.ERROR_CONVERT_INTEGER.key(), Component.text(argument));
     };
 
-    public final static ArgumentConverter<Double> DOUBLE_CONVERTER = (form, argument) -> {
-        try {
-            return ConversionResult.of(true, Double.parseDouble(argument), null);
-        }
-        catch(NumberFormatException e) {
-            return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_DOUBLE.key(),
-                    Component.text(argument)));
+    /**
+     * Converts arguments to Integers. This is {@link Converters#INT_PRIMITIVE_CONVERTER}, typed as a plain
+     * ArgumentConverter.
+     */
+    public final static ArgumentConverter<Integer> INTEGER_CONVERTER = INT_PRIMITIVE_CONVERTER;
+
+    /**
+     * Converts arguments to doubles, storing them without boxing. Forms extending
+     * {@link io.github.zap.regularcommands.commands.PrimitiveCommandForm} read them using
+     * {@link Arguments#getDouble(int)}.
+     */
+    public final static DoubleArgumentConverter DOUBLE_PRIMITIVE_CONVERTER = (form, argument, target, index) -> {
+        if(Numbers.isFloatingPoint(argument)) {
+            target.setDouble(index, Double.parseDouble(argument));
+            return null;
         }
+
+        return Component.translatable(DefaultKeys.ERROR_CONVERT_DOUBLE.key(), Component.text(argument));
     };
 
+    /**
+     * Converts arguments to Doubles. This is {@link Converters#DOUBLE_PRIMITIVE_CONVERTER}, typed as a plain
+     * ArgumentConverter.
+     */
+    public final static ArgumentConverter<Double> DOUBLE_CONVERTER = DOUBLE_PRIMITIVE_CONVERTER;
+
     public final static ArgumentConverter<Float> FLOAT_CONVERTER = (form, argument) -> {
-        try {
+        if(Numbers.isFloatingPoint(argument)) {
             return ConversionResult.of(true, Float.parseFloat(argument), null);
         }
-        catch(NumberFormatException e) {
-            return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_FLOAT.key(),
-                    Component.text(argument)));
-        }
+
+        return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_FLOAT.key(),
+                Component.text(argument)));
     };
 
     public final static ArgumentConverter<Short> SHORT_CONVERTER = (form, argument) -> {
-        try {
+        if(Numbers.isIntegral(argument, Short.MIN_VALUE, Short.MAX_VALUE)) {
             return ConversionResult.of(true, Short.parseShort(argument), null);
         }
-        catch(NumberFormatException e) {
-            return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_SHORT.key(),
-                    Component.text(argument)));
-        }
+
+        return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_SHORT.key(),
+                Component.text(argument)));
     };
 
     public final static ArgumentConverter<Byte> BYTE_CONVERTER = (form, argument) -> {
-        try {
+        if(Numbers.isIntegral(argument, Byte.MIN_VALUE, Byte.MAX_VALUE)) {
             return ConversionResult.of(true, Byte.parseByte(argument), null);
         }
-        catch(NumberFormatException e) {
-            return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_BYTE.key(),
-                    Component.text(argument)));
+
+        return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_BYTE.key(),
+                Component.text(argument)));
+    };
+
+    /**
+     * Converts arguments to booleans, storing them without boxing. Forms extending
+     * {@link io.github.zap.regularcommands.commands.PrimitiveCommandForm} read them using
+     * {@link Arguments#getBoolean(int)}.
+     */
+    public final static BooleanArgumentConverter BOOLEAN_PRIMITIVE_CONVERTER = (form, argument, target, index) -> {
+        if(argument.equalsIgnoreCase("true")) {
+            target.setBoolean(index, true);
+            return null;
+        }
+        else if(argument.equalsIgnoreCase("false")) {
+            target.setBoolean(index, false);
+            return null;
         }
+
+        return Component.translatable(DefaultKeys.ERROR_CONVERT_BOOLEAN.key(), Component.text(argument));
     };
 
-    public final static ArgumentConverter<Boolean> BOOLEAN_CONVERTER = (form, argument) -> {
-        try {
-            return ConversionResult.of(true, parseBoolean(argument), null);
+    /**
+     * Converts arguments to Booleans. This is {@link Converters#BOOLEAN_PRIMITIVE_CONVERTER}, typed as a plain
+     * ArgumentConverter.
+     */
+    public final static ArgumentConverter<Boolean> BOOLEAN_CONVERTER = BOOLEAN_PRIMITIVE_CONVERTER;
+
+    /**
+     * Converts arguments to Materials, ignoring case. Legacy materials are not accepted.
+     */
+    public static final EnumConverter<Material> MATERIAL_CONVERTER = EnumConverter.of(Material.class,
+            material -> !material.isLegacy(), DefaultKeys.ERROR_CONVERT_MATERIAL.key());
+
+    /**
+     * Converts the name (ignoring case) or UUID of an online player to the player. Players are looked up using
+     * {@link ServerLookup}, so this converter does not scan the online players. If the sender is a player, players it
+     * cannot see (see {@link Player#canSee(Player)}) fail to convert with the same error as offline players, so hidden
+     * players cannot be found out by name.
+     */
+    public static final SenderArgumentConverter<Player> PLAYER_CONVERTER = (form, sender, argument) -> {
+        UUID id = parseUuid(argument);
+        Player player = id == null ? ServerLookup.getPlayer(argument, sender) : ServerLookup.getPlayer(id, sender);
+
+        if(player != null) {
+            return ConversionResult.of(true, player, null);
         }
-        catch (NumberFormatException e) {
-            return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_BOOLEAN.key(),
-                    Component.text(argument)));
+
+        return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_PLAYER.key(),
+                Component.text(argument)));
+    };
+
+    /**
+     * Converts the name (ignoring case) or UUID of a loaded world to the world. Worlds are looked up using
+     * {@link ServerLookup}, so this converter does not scan the loaded worlds.
+     */
+    public static final ArgumentConverter<World> WORLD_CONVERTER = (form, argument) -> {
+        UUID id = parseUuid(argument);
+        World world = id == null ? ServerLookup.getWorld(argument) : ServerLookup.getWorld(id);
+
+        if(world != null) {
+            return ConversionResult.of(true, world, null);
         }
+
+        return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_WORLD.key(),
+                Component.text(argument)));
     };
 
-    public static final ArgumentConverter<Material> MATERIAL_CONVERTER = (form, argument) -> {
-        Material material = Material.getMaterial(argument);
+    /**
+     * Converts the UUID of an entity, or the name of an online player, to the entity. Entities are looked up by UUID
+     * using {@link Bukkit#getEntity(UUID)}, which does not scan the worlds but must be called from the server thread.
+     */
+    public static final ArgumentConverter<Entity> ENTITY_CONVERTER = (form, argument) -> {
+        UUID id = parseUuid(argument);
+        Entity entity = id == null ? ServerLookup.getPlayer(argument) : Bukkit.getEntity(id);
 
-        if(material != null) {
-            return ConversionResult.of(true, material, null);
+        if(entity != null) {
+            return ConversionResult.of(true, entity, null);
         }
 
-        return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_MATERIAL.key(),
+        return ConversionResult.of(false, null, Component.translatable(DefaultKeys.ERROR_CONVERT_ENTITY.key(),
                 Component.text(argument)));
     };
 
+    /**
+     * Creates an ArgumentConverter that converts arguments to the constants of the given enum, ignoring case. The
+     * returned converter also provides an ArgumentCompleter for the constants; see {@link EnumConverter}.
+     * @param type The class of the enum
+     * @param <E> The type of the enum
+     * @return A new EnumConverter
+     */
+    public static <E extends Enum<E>> @NotNull EnumConverter<E> newEnumConverter(@NotNull Class<E> type) {
+        return EnumConverter.of(type);
+    }
+
     /**
      * Creates an ArgumentConverter that can convert an input sequence into an array, given an ArgumentConverter
-     * that is capable of converting individual arguments, and a delimiter to split the input string.
+     * that is capable of converting individual arguments, and a delimiter to split the input string. The input is
+     * split exactly as {@link String#split(String)} would split it, but the delimiter is compiled once, when this
+     * method is called, and each element is converted as soon as it is found. Conversion stops at the first element
+     * that cannot be converted.
      * @param elementConverter The converter that will convert each element
-     * @param delimiter The delimiter used to split up the input string
+     * @param delimiter The delimiter used to split up the input string, which is interpreted as a regex
      * @param arrayType The type of the array
      * @param <T> The type of argument we're trying to convert
      * @return An argument converter capable of transforming an input string into an array
+     * @throws java.util.regex.PatternSyntaxException if the delimiter is not a valid regex
      */
     public static <T> ArgumentConverter<T[]> newArrayConverter(ArgumentConverter<T> elementConverter, String delimiter,
                                                                Class<T> arrayType) {
-        Objects.requireNonNull(elementConverter, "element converter cannot be null");
-        Objects.requireNonNull(delimiter, "delimiter cannot be null");
         Objects.requireNonNull(arrayType, "arrayType cannot be null");
 
-        return (form, argument) -> {
-            String[] components = argument.split(delimiter);
-            if(components.length == 0) {
-                //noinspection unchecked
-                return ConversionResult.of(true, (T[])Array.newInstance(arrayType, 0), null);
-            }
+        //noinspection unchecked
+        return newArrayConverter(elementConverter, delimiter, length -> (T[])Array.newInstance(arrayType, length));
+    }
 
-            //noinspection unchecked
-            T[] resultingArray = (T[])Array.newInstance(arrayType, components.length);
+    /**
+     * Works like {@link Converters#newArrayConverter(ArgumentConverter, String, Class)}, but creates the resulting
+     * array using the given generator, ex. {@code String[]::new}.
+     * @param elementConverter The converter that will convert each element
+     * @param delimiter The delimiter used to split up the input string, which is interpreted as a regex
+     * @param generator A function that creates an array of the requested length
+     * @param <T> The type of argument we're trying to convert
+     * @return An argument converter capable of transforming an input string into an array
+     * @throws java.util.regex.PatternSyntaxException if the delimiter is not a valid regex
+     */
+    public static <T> ArgumentConverter<T[]> newArrayConverter(ArgumentConverter<T> elementConverter, String delimiter,
+                                                               IntFunction<T[]> generator) {
+        Objects.requireNonNull(elementConverter, "element converter cannot be null");
+        Objects.requireNonNull(generator, "generator cannot be null");
+        Splitter splitter = Splitter.of(delimiter);
 
-            for(int i = 0; i < components.length; i++) {
-                String component = components[i];
+        return (form, argument) -> {
+            Splitter.Cursor cursor = splitter.split(argument);
+            Object[] elements = ArrayUtils.EMPTY_OBJECT_ARRAY;
+            int size = 0;
+
+            for(String component = cursor.next(); component != null; component = cursor.next()) {
                 ConversionResult<T> result = elementConverter.convert(form, component);
 
-                if(result.isValid()) {
-                    resultingArray[i] = result.getConversion();
-                }
-                else {
+                if(!result.isValid()) {
                     return ConversionResult.of(false, null, result.getErrorMessage());
                 }
+
+                if(size == elements.length) {
+                    elements = Arrays.copyOf(elements, grow(size));
+                }
+
+                elements[size++] = result.getConversion();
             }
 
+            T[] resultingArray = generator.apply(size);
+            System.arraycopy(elements, 0, resultingArray, 0, size);
             return ConversionResult.of(true, resultingArray, null);
         };
     }
 
     /**
-     * Converts a string to a boolean, case ignored. Throws a NumberFormatException if the conversion fails.
-     * @param value The input string
-     * @return true if value.equalsIgnoreCase("true"), false if value.equalsIgnoreCase("false")
+     * Creates an ArgumentConverter that converts an input sequence into an int array, splitting the input like
+     * {@link Converters#newArrayConverter(ArgumentConverter, String, Class)}. Elements are converted without boxing.
+     * @param elementConverter The converter that will convert each element, ex.
+     *                         {@link Converters#INT_PRIMITIVE_CONVERTER}
+     * @param delimiter The delimiter used to split up the input string, which is interpreted as a regex
+     * @return An argument converter capable of transforming an input string into an int array
+     * @throws java.util.regex.PatternSyntaxException if the delimiter is not a valid regex
      */
-    private static boolean parseBoolean(String value) {
-        if(value.equalsIgnoreCase("true")) {
-            return true;
-        }
-        else if(value.equalsIgnoreCase("false")) {
-            return false;
+    public static ArgumentConverter<int[]> newIntArrayConverter(IntArgumentConverter elementConverter,
+                                                                String delimiter) {
+        Objects.requireNonNull(elementConverter, "element converter cannot be null");
+        Splitter splitter = Splitter.of(delimiter);
+
+        return (form, argument) -> {
+            Splitter.Cursor cursor = splitter.split(argument);
+            Arguments slot = new Arguments(1);
+            int[] elements = new int[0];
+            int size = 0;
+
+            for(String component = cursor.next(); component != null; component = cursor.next()) {
+                Component errorMessage = elementConverter.convertInto(form, component, slot, 0);
+
+                if(errorMessage != null) {
+                    return ConversionResult.of(false, null, errorMessage);
+                }
+
+                if(size == elements.length) {
+                    elements = Arrays.copyOf(elements, grow(size));
+                }
+
+                elements[size++] = slot.getInt(0);
+            }
+
+            return ConversionResult.of(true, size == elements.length ? elements : Arrays.copyOf(elements, size), null);
+        };
+    }
+
+    /**
+     * Creates an ArgumentConverter that converts an input sequence into a long array, splitting the input like
+     * {@link Converters#newArrayConverter(ArgumentConverter, String, Class)}. Elements are converted without boxing.
+     * @param elementConverter The converter that will convert each element, ex.
+     *                         {@link Converters#LONG_PRIMITIVE_CONVERTER}
+     * @param delimiter The delimiter used to split up the input string, which is interpreted as a regex
+     * @return An argument converter capable of transforming an input string into a long array
+     * @throws java.util.regex.PatternSyntaxException if the delimiter is not a valid regex
+     */
+    public static ArgumentConverter<long[]> newLongArrayConverter(LongArgumentConverter elementConverter,
+                                                                  String delimiter) {
+        Objects.requireNonNull(elementConverter, "element converter cannot be null");
+        Splitter splitter = Splitter.of(delimiter);
+
+        return (form, argument) -> {
+            Splitter.Cursor cursor = splitter.split(argument);
+            Arguments slot = new Arguments(1);
+            long[] elements = new long[0];
+            int size = 0;
+
+            for(String component = cursor.next(); component != null; component = cursor.next()) {
+                Component errorMessage = elementConverter.convertInto(form, component, slot, 0);
+
+                if(errorMessage != null) {
+                    return ConversionResult.of(false, null, errorMessage);
+                }
+
+                if(size == elements.length) {
+                    elements = Arrays.copyOf(elements, grow(size));
+                }
+
+                elements[size++] = slot.getLong(0);
+            }
+
+            return ConversionResult.of(true, size == elements.length ? elements : Arrays.copyOf(elements, size), null);
+        };
+    }
+
+    /**
+     * Creates an ArgumentConverter that converts an input sequence into a double array, splitting the input like
+     * {@link Converters#newArrayConverter(ArgumentConverter, String, Class)}. Elements are converted without boxing.
+     * @param elementConverter The converter that will convert each element, ex.
+     *                         {@link Converters#DOUBLE_PRIMITIVE_CONVERTER}
+     * @param delimiter The delimiter used to split up the input string, which is interpreted as a regex
+     * @return An argument converter capable of transforming an input string into a double array
+     * @throws java.util.regex.PatternSyntaxException if the delimiter is not a valid regex
+     */
+    public static ArgumentConverter<double[]> newDoubleArrayConverter(DoubleArgumentConverter elementConverter,
+                                                                      String delimiter) {
+        Objects.requireNonNull(elementConverter, "element converter cannot be null");
+        Splitter splitter = Splitter.of(delimiter);
+
+        return (form, argument) -> {
+            Splitter.Cursor cursor = splitter.split(argument);
+            Arguments slot = new Arguments(1);
+            double[] elements = new double[0];
+            int size = 0;
+
+            for(String component = cursor.next(); component != null; component = cursor.next()) {
+                Component errorMessage = elementConverter.convertInto(form, component, slot, 0);
+
+                if(errorMessage != null) {
+                    return ConversionResult.of(false, null, errorMessage);
+                }
+
+                if(size == elements.length) {
+                    elements = Arrays.copyOf(elements, grow(size));
+                }
+
+                elements[size++] = slot.getDouble(0);
+            }
+
+            return ConversionResult.of(true, size == elements.length ? elements : Arrays.copyOf(elements, size), null);
+        };
+    }
+
+    //parses the canonical 8-4-4-4-12 form of a UUID, returning null instead of throwing
+    private static UUID parseUuid(String argument) {
+        if(argument.length() != 36) {
+            return null;
         }
-        else {
-            throw new NumberFormatException();
+
+        long mostSignificant = 0;
+        long leastSignificant = 0;
+        int digits = 0;
+
+        for(int i = 0; i < 36; i++) {
+            char current = argument.charAt(i);
+
+            if(i == 8 || i == 13 || i == 18 || i == 23) {
+                if(current != '-') {
+                    return null;
+                }
+
+                continue;
+            }
+
+            int digit = Character.digit(current, 16);
+            if(digit < 0 || current > 127) {
+                return null;
+            }
+
+            if(digits++ < 16) {
+                mostSignificant = mostSignificant << 4 | digit;
+            }
+            else {
+                leastSignificant = leastSignificant << 4 | digit;
+            }
         }
+
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    private static int grow(int size) {
+        return size == 0 ? 8 : size + (size >> 1);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,751 @@
+package io.github.zap.regularcommands.util;
+
+import io.github.zap.regularcommands.converter.ArgumentMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for ArgumentMatchers. Regular expressions are analyzed when they are compiled; common shapes such as
+ * a sequence of quantified character classes (ex. {@code ^[1-9]\d*$}) or an alternation of fixed words (ex.
+ * {@code ^(?:on|off)$}) are turned into matchers that scan the argument directly, without allocating. Any other
+ * pattern falls back to a regex Matcher that is reused per-thread. Matchers can also be combined into a {@link Table},
+ * which tests an argument against all of them during a single scan.
+ */
+public final class Matchers {
+    private static final int NON_ASCII_NONE = 0;
+    private static final int NON_ASCII_NOT_LINE_TERMINATOR = 1;
+    private static final int NON_ASCII_ALL = 2;
+
+    /**
+     * A set of characters, stored as a bitmap for ASCII characters. Non-ASCII characters are either all rejected, all
+     * accepted, or all accepted except for line terminators (which is what '.' does).
+     */
+    private static final class CharClass {
+        private long low;
+        private long high;
+        private int nonAscii;
+
+        private static CharClass of(char character) {
+            CharClass charClass = new CharClass();
+            charClass.add(character);
+            return charClass;
+        }
+
+        private static CharClass range(char first, char last) {
+            CharClass charClass = new CharClass();
+            for(char c = first; c <= last; c++) {
+                charClass.add(c);
+            }
+
+            return charClass;
+        }
+
+        private static CharClass any() {
+            CharClass charClass = new CharClass();
+            charClass.low = -1L & ~(1L << '\n') & ~(1L << '\r');
+            charClass.high = -1L;
+            charClass.nonAscii = NON_ASCII_NOT_LINE_TERMINATOR;
+            return charClass;
+        }
+
+        private void add(char character) {
+            if(character < 64) {
+                low |= 1L << character;
+            }
+            else {
+                high |= 1L << (character - 64);
+            }
+        }
+
+        private void addAll(CharClass other) {
+            low |= other.low;
+            high |= other.high;
+            nonAscii = Math.max(nonAscii, other.nonAscii);
+        }
+
+        private @Nullable CharClass negate() {
+            if(nonAscii == NON_ASCII_NOT_LINE_TERMINATOR) {
+                return null;
+            }
+
+            CharClass charClass = new CharClass();
+            charClass.low = ~low;
+            charClass.high = ~high;
+            charClass.nonAscii = nonAscii == NON_ASCII_ALL ? NON_ASCII_NONE : NON_ASCII_ALL;
+            return charClass;
+        }
+
+        private boolean intersects(CharClass other) {
+            return (low & other.low) != 0 || (high & other.high) != 0 || nonAscii != NON_ASCII_NONE &&
+                    other.nonAscii != NON_ASCII_NONE;
+        }
+
+        private boolean contains(int codePoint) {
+            if(codePoint < 64) {
+                return (low & (1L << codePoint)) != 0;
+            }
+            else if(codePoint < 128) {
+                return (high & (1L << (codePoint - 64))) != 0;
+            }
+
+            switch (nonAscii) {
+                case NON_ASCII_ALL:
+                    return true;
+                case NON_ASCII_NOT_LINE_TERMINATOR:
+                    return codePoint != 0x85 && codePoint != 0x2028 && codePoint != 0x2029;
+                case NON_ASCII_NONE:
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class Atom {
+        private final CharClass charClass;
+        private final int min;
+        private final int max;
+
+        private Atom(CharClass charClass, int min, int max) {
+            this.charClass = charClass;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    /**
+     * Matches a sequence of quantified character classes by consuming each one greedily. This is only used when
+     * greediness can never cause a valid input to be rejected; see {@link PatternAnalyzer#isGreedySafe(List)}.
+     */
+    private static final class SequenceMatcher implements ArgumentMatcher {
+        private final Atom[] atoms;
+
+        private SequenceMatcher(Atom[] atoms) {
+            this.atoms = atoms;
+        }
+
+        @Override
+        public boolean matches(@NotNull String argument) {
+            int length = argument.length();
+            int index = 0;
+
+            for(Atom atom : atoms) {
+                int count = 0;
+
+                while(count < atom.max && index < length) {
+                    int codePoint = argument.codePointAt(index);
+
+                    if(!atom.charClass.contains(codePoint)) {
+                        break;
+                    }
+
+                    index += Character.charCount(codePoint);
+                    count++;
+                }
+
+                if(count < atom.min) {
+                    return false;
+                }
+            }
+
+            return index == length;
+        }
+
+        //consumes one code point, given the atom and count stored at offset; returns false if the sequence cannot
+        //accept it. Consuming one code point at a time makes the same greedy choices as matches(String)
+        private boolean advance(int[] state, int offset, int codePoint) {
+            int atomIndex = state[offset];
+            int count = state[offset + 1];
+
+            while(atomIndex < atoms.length) {
+                Atom atom = atoms[atomIndex];
+
+                if(count < atom.max && atom.charClass.contains(codePoint)) {
+                    state[offset] = atomIndex;
+                    state[offset + 1] = count + 1;
+                    return true;
+                }
+
+                if(count < atom.min) {
+                    return false;
+                }
+
+                atomIndex++;
+                count = 0;
+            }
+
+            return false;
+        }
+
+        //tests whether the input consumed so far is a complete match, given the atom and count stored at offset
+        private boolean accepts(int[] state, int offset) {
+            int count = state[offset + 1];
+
+            for(int atomIndex = state[offset]; atomIndex < atoms.length; atomIndex++) {
+                if(count < atoms[atomIndex].min) {
+                    return false;
+                }
+
+                count = 0;
+            }
+
+            return true;
+        }
+    }
+
+    private static final class LiteralMatcher implements ArgumentMatcher {
+        private final String literal;
+
+        private LiteralMatcher(String literal) {
+            this.literal = literal;
+        }
+
+        @Override
+        public boolean matches(@NotNull String argument) {
+            return literal.equals(argument);
+        }
+    }
+
+    private static final class LiteralSetMatcher implements ArgumentMatcher {
+        private final Set<String> literals;
+
+        private LiteralSetMatcher(Set<String> literals) {
+            this.literals = literals;
+        }
+
+        @Override
+        public boolean matches(@NotNull String argument) {
+            return literals.contains(argument);
+        }
+    }
+
+    private static final class RegexMatcher implements ArgumentMatcher {
+        private final ThreadLocal<Matcher> matcher;
+
+        private RegexMatcher(Pattern pattern) {
+            this.matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
+        }
+
+        @Override
+        public boolean matches(@NotNull String argument) {
+            return matcher.get().reset(argument).matches();
+        }
+    }
+
+    /**
+     * Immutable table that tests an argument against several ArgumentMatchers at once, each of which is associated with
+     * a set of indices. Every literal and literal alternation is merged into a single hash lookup, and every sequence
+     * of character classes is advanced side by side during a single scan of the argument. Only matchers that could not
+     * be specialized, such as those that fall back to the regex engine, are tested one by one. Tables are created
+     * using {@link Matchers#table(List, List)}.
+     */
+    public static final class Table {
+        private final Map<String, BitSet> literals = new HashMap<>();
+        private final List<SequenceMatcher> sequences = new ArrayList<>();
+        private final List<BitSet> sequenceIndices = new ArrayList<>();
+        private final List<ArgumentMatcher> others = new ArrayList<>();
+        private final List<BitSet> otherIndices = new ArrayList<>();
+        private final ThreadLocal<int[]> states; //the atom and count of each sequence, reused per thread
+
+        private Table(List<? extends ArgumentMatcher> matchers, List<BitSet> indices) {
+            for(int i = 0; i < matchers.size(); i++) {
+                ArgumentMatcher matcher = Objects.requireNonNull(matchers.get(i), "matchers cannot contain null");
+                BitSet matcherIndices = (BitSet)indices.get(i).clone();
+
+                if(matcher instanceof LiteralMatcher) {
+                    addLiteral(((LiteralMatcher)matcher).literal, matcherIndices);
+                }
+                else if(matcher instanceof LiteralSetMatcher) {
+                    for(String literal : ((LiteralSetMatcher)matcher).literals) {
+                        addLiteral(literal, matcherIndices);
+                    }
+                }
+                else if(matcher instanceof SequenceMatcher) {
+                    sequences.add((SequenceMatcher)matcher);
+                    sequenceIndices.add(matcherIndices);
+                }
+                else {
+                    others.add(matcher);
+                    otherIndices.add(matcherIndices);
+                }
+            }
+
+            int stateLength = sequences.size() * 2;
+            states = ThreadLocal.withInitial(() -> new int[stateLength]);
+        }
+
+        private void addLiteral(String literal, BitSet literalIndices) {
+            literals.computeIfAbsent(literal, key -> new BitSet()).or(literalIndices);
+        }
+
+        /**
+         * Adds the indices of every matcher that accepts the argument to result. Matchers whose indices do not
+         * intersect filter may be skipped, in which case their indices may or may not be added.
+         * @param argument The argument to test
+         * @param filter The indices of interest
+         * @param result The BitSet to add indices to
+         */
+        public void collect(@NotNull String argument, @NotNull BitSet filter, @NotNull BitSet result) {
+            BitSet literalIndices = literals.get(argument);
+            if(literalIndices != null) {
+                result.or(literalIndices);
+            }
+
+            if(!sequences.isEmpty()) {
+                scanSequences(argument, filter, result);
+            }
+
+            for(int i = 0; i < others.size(); i++) {
+                BitSet matcherIndices = otherIndices.get(i);
+
+                if(matcherIndices.intersects(filter) && others.get(i).matches(argument)) {
+                    result.or(matcherIndices);
+                }
+            }
+        }
+
+        private void scanSequences(String argument, BitSet filter, BitSet result) {
+            int[] state = states.get();
+            int live = 0;
+
+            for(int i = 0; i < sequences.size(); i++) {
+                if(sequenceIndices.get(i).intersects(filter)) {
+                    state[i * 2] = 0;
+                    state[i * 2 + 1] = 0;
+                    live++;
+                }
+                else {
+                    state[i * 2] = -1; //not of interest, so never advanced
+                }
+            }
+
+            int length = argument.length();
+            for(int index = 0; index < length && live > 0; ) {
+                int codePoint = argument.codePointAt(index);
+                index += Character.charCount(codePoint);
+
+                for(int i = 0; i < sequences.size(); i++) {
+                    if(state[i * 2] >= 0 && !sequences.get(i).advance(state, i * 2, codePoint)) {
+                        state[i * 2] = -1;
+                        live--;
+                    }
+                }
+            }
+
+            for(int i = 0; i < sequences.size(); i++) {
+                if(state[i * 2] >= 0 && sequences.get(i).accepts(state, i * 2)) {
+                    result.or(sequenceIndices.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Recursive-descent reader for the subset of regular expression syntax that can be specialized. Every method
+     * returns null (or false) as soon as it encounters anything outside of that subset.
+     */
+    private static final class PatternAnalyzer {
+        private final String source;
+        private int index;
+        private int end;
+
+        private PatternAnalyzer(String source) {
+            this.source = source;
+            this.end = source.length();
+        }
+
+        private @Nullable ArgumentMatcher analyze() {
+            for(int i = 0; i < end; i++) {
+                if(source.charAt(i) > 127) { //keeps every character class representable as an ASCII bitmap
+                    return null;
+                }
+            }
+
+            if(end > 0 && source.charAt(0) == '^') {
+                index = 1;
+            }
+
+            if(end > index && source.charAt(end - 1) == '$' && !isEscaped(end - 1)) {
+                end--;
+            }
+
+            int start = index;
+            ArgumentMatcher literals = literalAlternation();
+            if(literals != null) {
+                return literals;
+            }
+
+            index = start;
+            List<Atom> atoms = sequence();
+            if(atoms != null && isGreedySafe(atoms)) {
+                return new SequenceMatcher(atoms.toArray(new Atom[0]));
+            }
+
+            return null;
+        }
+
+        private boolean isEscaped(int position) {
+            int backslashes = 0;
+            for(int i = position - 1; i >= 0 && source.charAt(i) == '\\'; i--) {
+                backslashes++;
+            }
+
+            return backslashes % 2 == 1;
+        }
+
+        private boolean isGreedySafe(List<Atom> atoms) {
+            for(int i = 0; i < atoms.size() - 1; i++) {
+                Atom atom = atoms.get(i);
+                Atom next = atoms.get(i + 1);
+
+                //a variable-length atom may only be followed by a mandatory atom that shares none of its characters
+                if(atom.min != atom.max && (next.min == 0 || atom.charClass.intersects(next.charClass))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private @Nullable ArgumentMatcher literalAlternation() {
+            int groupEnd = end;
+
+            if(index < end && source.charAt(index) == '(' && source.charAt(end - 1) == ')' && !isEscaped(end - 1)) {
+                index += source.startsWith("?:", index + 1) ? 3 : 1;
+                groupEnd = end - 1;
+            }
+
+            Set<String> literals = new HashSet<>();
+            StringBuilder builder = new StringBuilder();
+
+            while(true) {
+                builder.setLength(0);
+
+                while(index < groupEnd && source.charAt(index) != '|') {
+                    int literal = literalChar();
+
+                    if(literal < 0) {
+                        return null;
+                    }
+
+                    builder.append((char)literal);
+                }
+
+                literals.add(builder.toString());
+
+                if(index >= groupEnd) {
+                    break;
+                }
+
+                index++; //skip the |
+            }
+
+            if(literals.size() == 1) {
+                return new LiteralMatcher(literals.iterator().next());
+            }
+
+            return new LiteralSetMatcher(Set.copyOf(literals));
+        }
+
+        private int literalChar() {
+            char current = source.charAt(index);
+
+            if(current == '\\') {
+                if(index + 1 >= end) {
+                    return -1;
+                }
+
+                int escaped = escapedLiteral(source.charAt(index + 1));
+                if(escaped >= 0) {
+                    index += 2;
+                }
+
+                return escaped;
+            }
+
+            if("^$.|?*+()[]{}".indexOf(current) >= 0) {
+                return -1;
+            }
+
+            index++;
+            return current;
+        }
+
+        private static int escapedLiteral(char escaped) {
+            switch (escaped) {
+                case 't':
+                    return '\t';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 'f':
+                    return '\f';
+                default:
+                    return Character.isLetterOrDigit(escaped) ? -1 : escaped;
+            }
+        }
+
+        private @Nullable List<Atom> sequence() {
+            List<Atom> atoms = new ArrayList<>();
+
+            while(index < end) {
+                CharClass charClass = atomClass();
+                if(charClass == null) {
+                    return null;
+                }
+
+                int min = 1;
+                int max = 1;
+
+                if(index < end) {
+                    switch (source.charAt(index)) {
+                        case '?':
+                            min = 0;
+                            index++;
+                            break;
+                        case '*':
+                            min = 0;
+                            max = Integer.MAX_VALUE;
+                            index++;
+                            break;
+                        case '+':
+                            max = Integer.MAX_VALUE;
+                            index++;
+                            break;
+                        case '{':
+                            int closing = source.indexOf('}', index);
+                            if(closing < 0 || closing >= end) {
+                                return null;
+                            }
+
+                            String bounds = source.substring(index + 1, closing);
+                            int comma = bounds.indexOf(',');
+
+                            try {
+                                if(comma < 0) {
+                                    min = max = Integer.parseInt(bounds);
+                                }
+                                else {
+                                    min = Integer.parseInt(bounds.substring(0, comma));
+                                    max = comma == bounds.length() - 1 ? Integer.MAX_VALUE :
+                                            Integer.parseInt(bounds.substring(comma + 1));
+                                }
+                            }
+                            catch (NumberFormatException e) { //only happens once, when the Parameter is created
+                                return null;
+                            }
+
+                            if(min < 0 || max < min) {
+                                return null;
+                            }
+
+                            index = closing + 1;
+                            break;
+                    }
+
+                    if(index < end) {
+                        char suffix = source.charAt(index);
+
+                        if(suffix == '+' && (min != 1 || max != 1)) { //possessive quantifiers change what matches
+                            return null;
+                        }
+                        else if(suffix == '?' && (min != 1 || max != 1)) { //reluctance doesn't, for a full match
+                            index++;
+                        }
+                    }
+                }
+
+                atoms.add(new Atom(charClass, min, max));
+            }
+
+            return atoms;
+        }
+
+        private @Nullable CharClass atomClass() {
+            char current = source.charAt(index);
+
+            switch (current) {
+                case '.':
+                    index++;
+                    return CharClass.any();
+                case '[':
+                    return bracketClass();
+                case '\\':
+                    if(index + 1 >= end) {
+                        return null;
+                    }
+
+                    CharClass shorthand = shorthandClass(source.charAt(index + 1));
+                    if(shorthand != null) {
+                        index += 2;
+                        return shorthand;
+                    }
+                default:
+                    int literal = literalChar();
+                    return literal < 0 ? null : CharClass.of((char)literal);
+            }
+        }
+
+        private static @Nullable CharClass shorthandClass(char escaped) {
+            switch (escaped) {
+                case 'd':
+                    return CharClass.range('0', '9');
+                case 'w':
+                    CharClass word = CharClass.range('a', 'z');
+                    word.addAll(CharClass.range('A', 'Z'));
+                    word.addAll(CharClass.range('0', '9'));
+                    word.add('_');
+                    return word;
+                case 's':
+                    CharClass space = CharClass.of(' ');
+                    space.addAll(CharClass.range('\t', '\r')); //tab through carriage return
+                    return space;
+                case 'D':
+                case 'W':
+                case 'S':
+                    CharClass positive = shorthandClass(Character.toLowerCase(escaped));
+                    return positive == null ? null : positive.negate();
+                default:
+                    return null;
+            }
+        }
+
+        private @Nullable CharClass bracketClass() {
+            index++; //skip the [
+            boolean negated = index < end && source.charAt(index) == '^';
+            if(negated) {
+                index++;
+            }
+
+            if(index < end && source.charAt(index) == ']') { //leading ] is a corner case best left to the regex engine
+                return null;
+            }
+
+            CharClass charClass = new CharClass();
+            while(index < end && source.charAt(index) != ']') {
+                char current = source.charAt(index);
+
+                if(current == '[' || current == '&' && index + 1 < end && source.charAt(index + 1) == '&') {
+                    return null; //nested classes, unions and intersections
+                }
+
+                if(current == '\\' && index + 1 < end) {
+                    CharClass shorthand = shorthandClass(source.charAt(index + 1));
+
+                    if(shorthand != null) {
+                        charClass.addAll(shorthand);
+                        index += 2;
+                        continue;
+                    }
+                }
+
+                int first = classChar();
+                if(first < 0) {
+                    return null;
+                }
+
+                if(index + 1 < end && source.charAt(index) == '-' && source.charAt(index + 1) != ']') {
+                    index++; //skip the -
+                    int last = classChar();
+
+                    if(last < first) {
+                        return null;
+                    }
+
+                    charClass.addAll(CharClass.range((char)first, (char)last));
+                }
+                else {
+                    charClass.add((char)first);
+                }
+            }
+
+            if(index >= end) { //unterminated class
+                return null;
+            }
+
+            index++; //skip the ]
+            return negated ? charClass.negate() : charClass;
+        }
+
+        private int classChar() {
+            char current = source.charAt(index);
+
+            if(current == '\\') {
+                if(index + 1 >= end) {
+                    return -1;
+                }
+
+                int escaped = escapedLiteral(source.charAt(index + 1));
+                if(escaped >= 0) {
+                    index += 2;
+                }
+
+                return escaped;
+            }
+
+            index++;
+            return current;
+        }
+    }
+
+    /**
+     * Creates an ArgumentMatcher that accepts only the given string.
+     * @param literal The exact string to match, which is case-sensitive
+     * @return An ArgumentMatcher that performs an equality check
+     */
+    public static @NotNull ArgumentMatcher literal(@NotNull String literal) {
+        return new LiteralMatcher(Objects.requireNonNull(literal, "literal cannot be null"));
+    }
+
+    /**
+     * Creates a Table that tests arguments against every given matcher at once. The matcher at each index of matchers
+     * is associated with the indices at the same index of indices.
+     * @param matchers The matchers to combine
+     * @param indices The indices associated with each matcher, which are copied
+     * @return A new Table
+     * @throws IllegalArgumentException if the lists are not the same size
+     */
+    public static @NotNull Table table(@NotNull List<? extends ArgumentMatcher> matchers,
+                                       @NotNull List<BitSet> indices) {
+        Objects.requireNonNull(matchers, "matchers cannot be null");
+        Objects.requireNonNull(indices, "indices cannot be null");
+
+        if(matchers.size() != indices.size()) {
+            throw new IllegalArgumentException("matchers and indices must be the same size");
+        }
+
+        return new Table(matchers, indices);
+    }
+
+    /**
+     * Creates an ArgumentMatcher that accepts exactly the arguments that the given pattern fully matches. Simple
+     * patterns are compiled into specialized matchers that do not use the regex engine; others are matched with a
+     * per-thread, reused Matcher.
+     * @param pattern The pattern to compile
+     * @return An ArgumentMatcher equivalent to {@code pattern.matcher(argument).matches()}
+     */
+    public static @NotNull ArgumentMatcher compile(@NotNull Pattern pattern) {
+        Objects.requireNonNull(pattern, "pattern cannot be null");
+
+        if(pattern.flags() == 0) {
+            ArgumentMatcher specialized = new PatternAnalyzer(pattern.pattern()).analyze();
+
+            if(specialized != null) {
+                return specialized;
+            }
+        }
+
+        return new RegexMatcher(pattern);
+    }
+}
@@ -0,0 +1,292 @@
+package io.github.zap.regularcommands.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utility class for validating numeric strings without throwing exceptions. Each method accepts exactly the strings
+ * that the corresponding JDK parser accepts, so a string that passes validation can be handed to that parser without
+ * risk of a NumberFormatException. This is useful for converters, which see a lot of invalid input during tab
+ * completion and dispatch and would otherwise pay for constructing an exception each time.
+ */
+public final class Numbers {
+    /**
+     * Determines if the string is a base-10 integer within the given range, following the rules of
+     * {@link Long#parseLong(String)}: an optional sign followed by one or more digits.
+     * @param string The string to test
+     * @param min The smallest allowed value
+     * @param max The largest allowed value
+     * @return True if the string can be parsed, and its value is within [min, max]
+     */
+    public static boolean isIntegral(@NotNull String string, long min, long max) {
+        int length = string.length();
+        if(length == 0) {
+            return false;
+        }
+
+        int index = 0;
+        boolean negative = false;
+        char first = string.charAt(0);
+
+        if(first == '-' || first == '+') {
+            negative = first == '-';
+            index++;
+
+            if(length == 1) {
+                return false;
+            }
+        }
+
+        //accumulate negatively, like the JDK, so that Long.MIN_VALUE does not overflow
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long value = 0;
+
+        for(; index < length; index++) {
+            int digit = Character.digit(string.charAt(index), 10);
+
+            if(digit < 0 || value < multiplyLimit) {
+                return false;
+            }
+
+            value *= 10;
+            if(value < limit + digit) {
+                return false;
+            }
+
+            value -= digit;
+        }
+
+        if(!negative) {
+            value = -value;
+        }
+
+        return value >= min && value <= max;
+    }
+
+    /**
+     * Determines if the string is a valid argument to {@link java.math.BigInteger#BigInteger(String)}: an optional
+     * sign followed by one or more digits.
+     * @param string The string to test
+     * @return True if the string can be parsed
+     */
+    public static boolean isBigInteger(@NotNull String string) {
+        int length = string.length();
+        int index = 0;
+
+        if(length > 0 && (string.charAt(0) == '-' || string.charAt(0) == '+')) {
+            index++;
+        }
+
+        if(index == length) {
+            return false;
+        }
+
+        for(; index < length; index++) {
+            if(Character.digit(string.charAt(index), 10) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines if the string is a valid argument to {@link java.math.BigDecimal#BigDecimal(String)}: an optional
+     * sign, digits with an optional decimal point (with at least one digit overall), and an optional exponent. The
+     * resulting scale must fit in an int.
+     * @param string The string to test
+     * @return True if the string can be parsed
+     */
+    public static boolean isBigDecimal(@NotNull String string) {
+        int length = string.length();
+        int index = 0;
+
+        if(length > 0 && (string.charAt(0) == '-' || string.charAt(0) == '+')) {
+            index++;
+        }
+
+        int digits = 0;
+        long fractionDigits = 0;
+        boolean point = false;
+
+        for(; index < length; index++) {
+            char current = string.charAt(index);
+
+            if(Character.isDigit(current)) {
+                digits++;
+
+                if(point) {
+                    fractionDigits++;
+                }
+            }
+            else if(current == '.' && !point) {
+                point = true;
+            }
+            else {
+                break;
+            }
+        }
+
+        if(digits == 0) {
+            return false;
+        }
+
+        if(index == length) {
+            return true;
+        }
+
+        char exponentMarker = string.charAt(index++);
+        if(exponentMarker != 'e' && exponentMarker != 'E' || index == length) {
+            return false;
+        }
+
+        boolean negativeExponent = false;
+        char sign = string.charAt(index);
+        if(sign == '-' || sign == '+') {
+            negativeExponent = sign == '-';
+
+            if(++index == length) {
+                return false;
+            }
+        }
+
+        long exponent = 0;
+        for(; index < length; index++) {
+            char current = string.charAt(index);
+
+            if(!Character.isDigit(current)) {
+                return false;
+            }
+
+            exponent = exponent * 10 + Character.digit(current, 10);
+            if(exponent > Integer.MAX_VALUE) { //BigDecimal requires the exponent to fit in an int
+                return false;
+            }
+        }
+
+        long scale = fractionDigits - (negativeExponent ? -exponent : exponent);
+        return scale >= Integer.MIN_VALUE && scale <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Determines if the string is a valid argument to {@link Double#parseDouble(String)} and
+     * {@link Float#parseFloat(String)}. This includes surrounding whitespace, an optional sign, "NaN", "Infinity",
+     * decimal and hexadecimal notation, exponents and a trailing type suffix (f, F, d or D).
+     * @param string The string to test
+     * @return True if the string can be parsed
+     */
+    public static boolean isFloatingPoint(@NotNull String string) {
+        int start = 0;
+        int end = string.length();
+
+        //same trimming as String.trim(), which is what the JDK does
+        while(start < end && string.charAt(start) <= ' ') {
+            start++;
+        }
+
+        while(end > start && string.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if(start < end && (string.charAt(start) == '-' || string.charAt(start) == '+')) {
+            start++;
+        }
+
+        if(start == end) {
+            return false;
+        }
+
+        char first = string.charAt(start);
+        if(first == 'N') {
+            return string.startsWith("NaN", start) && start + 3 == end;
+        }
+        else if(first == 'I') {
+            return string.startsWith("Infinity", start) && start + 8 == end;
+        }
+
+        //a single type suffix is allowed at the very end
+        char last = string.charAt(end - 1);
+        if(last == 'f' || last == 'F' || last == 'd' || last == 'D') {
+            end--;
+        }
+
+        if(first == '0' && start + 1 < end && (string.charAt(start + 1) == 'x' || string.charAt(start + 1) == 'X')) {
+            return isHexFloatingPoint(string, start + 2, end);
+        }
+
+        int index = start;
+        int digits = 0;
+        boolean point = false;
+
+        for(; index < end; index++) {
+            char current = string.charAt(index);
+
+            if(current >= '0' && current <= '9') {
+                digits++;
+            }
+            else if(current == '.' && !point) {
+                point = true;
+            }
+            else {
+                break;
+            }
+        }
+
+        if(digits == 0) {
+            return false;
+        }
+
+        if(index == end) {
+            return true;
+        }
+
+        char exponentMarker = string.charAt(index);
+        return (exponentMarker == 'e' || exponentMarker == 'E') && isExponent(string, index + 1, end);
+    }
+
+    private static boolean isHexFloatingPoint(String string, int index, int end) {
+        int digits = 0;
+        boolean point = false;
+
+        for(; index < end; index++) {
+            char current = string.charAt(index);
+
+            if(Character.digit(current, 16) >= 0 && current < 128) {
+                digits++;
+            }
+            else if(current == '.' && !point) {
+                point = true;
+            }
+            else {
+                break;
+            }
+        }
+
+        if(digits == 0 || index == end) {
+            return false;
+        }
+
+        char exponentMarker = string.charAt(index); //binary exponent is mandatory in hex notation
+        return (exponentMarker == 'p' || exponentMarker == 'P') && isExponent(string, index + 1, end);
+    }
+
+    private static boolean isExponent(String string, int index, int end) {
+        if(index < end && (string.charAt(index) == '-' || string.charAt(index) == '+')) {
+            index++;
+        }
+
+        if(index == end) {
+            return false;
+        }
+
+        for(; index < end; index++) {
+            char current = string.charAt(index);
+
+            if(current < '0' || current > '9') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
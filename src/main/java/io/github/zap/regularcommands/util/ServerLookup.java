@@ -0,0 +1,303 @@
+package io.github.zap.regularcommands.util;
+
+import io.github.zap.regularcommands.completer.CompletionSink;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Keeps indexes of the online players and loaded worlds, which are updated by join, quit, load and unload events
+ * rather than by scanning the server. Names are looked up ignoring case, like Bukkit does, and completion uses a
+ * sorted index so finding every name with a given prefix does not visit any other name. Every method is thread-safe,
+ * so the indexes can be used by async-safe completers.
+ *
+ * The indexes are filled once {@link ServerLookup#install(Plugin)} is called, which
+ * {@link io.github.zap.regularcommands.commands.CommandManager} does when its first command is registered. They are
+ * cleared again when the plugin that installed them is disabled.
+ */
+public final class ServerLookup {
+    /**
+     * Index over named, uniquely identified objects.
+     */
+    private static final class Index<T> {
+        private final Map<UUID, T> byId = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, T> byName = new ConcurrentSkipListMap<>(); //keyed by lowercase name
+
+        private void add(T value, String name, UUID id) {
+            byId.put(id, value);
+            byName.put(name.toLowerCase(Locale.ROOT), value);
+        }
+
+        private void remove(T value, String name, UUID id) {
+            byId.remove(id, value);
+            byName.remove(name.toLowerCase(Locale.ROOT), value);
+        }
+
+        private void clear() {
+            byId.clear();
+            byName.clear();
+        }
+
+        private void completeInto(String prefix, CompletionSink sink, Function<T, String> nameFunction,
+                                  Predicate<? super T> filter) {
+            String lowercasePrefix = prefix.toLowerCase(Locale.ROOT);
+
+            for(Map.Entry<String, T> entry : byName.tailMap(lowercasePrefix).entrySet()) {
+                if(!entry.getKey().startsWith(lowercasePrefix) || sink.isFull()) {
+                    break;
+                }
+
+                T value = entry.getValue();
+                if(filter == null || filter.test(value)) {
+                    sink.accept(nameFunction.apply(value));
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the indexes up to date. Its events are registered by {@link ServerLookup#install(Plugin)}.
+     */
+    private static final class Updater implements Listener {
+        //players are indexed before any other handler runs, and forgotten after every other handler has run
+        @EventHandler(priority = EventPriority.LOWEST)
+        public void onPlayerJoin(PlayerJoinEvent event) {
+            Player player = event.getPlayer();
+            players.add(player, player.getName(), player.getUniqueId());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPlayerQuit(PlayerQuitEvent event) {
+            Player player = event.getPlayer();
+            players.remove(player, player.getName(), player.getUniqueId());
+        }
+
+        @EventHandler(priority = EventPriority.LOWEST)
+        public void onWorldLoad(WorldLoadEvent event) {
+            World world = event.getWorld();
+            worlds.add(world, world.getName(), world.getUID());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onWorldUnload(WorldUnloadEvent event) {
+            World world = event.getWorld();
+            worlds.remove(world, world.getName(), world.getUID());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPluginDisable(PluginDisableEvent event) {
+            synchronized(ServerLookup.class) {
+                if(event.getPlugin() == owner) { //our events are unregistered, so the indexes would become stale
+                    owner = null;
+                    players.clear();
+                    worlds.clear();
+                }
+            }
+        }
+    }
+
+    private static final Index<Player> players = new Index<>();
+    private static final Index<World> worlds = new Index<>();
+    private static volatile Plugin owner;
+
+    private ServerLookup() {}
+
+    /**
+     * Starts maintaining the indexes, using events registered to the given plugin. The indexes are first filled with
+     * the players and worlds that are already present. Calling this method while the indexes are already maintained
+     * has no effect. This method must be called from the server thread.
+     * @param plugin The plugin to register the events with
+     * @return true if the indexes were installed by this call, false if they already were
+     */
+    public static synchronized boolean install(@NotNull Plugin plugin) {
+        Objects.requireNonNull(plugin, "plugin cannot be null");
+
+        if(owner != null) {
+            return false;
+        }
+
+        for(Player player : plugin.getServer().getOnlinePlayers()) {
+            players.add(player, player.getName(), player.getUniqueId());
+        }
+
+        for(World world : plugin.getServer().getWorlds()) {
+            worlds.add(world, world.getName(), world.getUID());
+        }
+
+        plugin.getServer().getPluginManager().registerEvents(new Updater(), plugin);
+        owner = plugin;
+        return true;
+    }
+
+    /**
+     * Returns whether the indexes are currently being maintained.
+     * @return true if {@link ServerLookup#install(Plugin)} has been called, and the plugin is still enabled
+     */
+    public static boolean isInstalled() {
+        return owner != null;
+    }
+
+    /**
+     * Gets an online player by name, ignoring case. If the indexes are not installed, Bukkit is queried instead, in
+     * which case this method must be called from the server thread.
+     * @param name The name of the player
+     * @return The player, or null if no player with that name is online
+     */
+    public static @Nullable Player getPlayer(@NotNull String name) {
+        return isInstalled() ? players.byName.get(name.toLowerCase(Locale.ROOT)) : Bukkit.getPlayerExact(name);
+    }
+
+    /**
+     * Gets an online player by UUID. If the indexes are not installed, Bukkit is queried instead, in which case this
+     * method must be called from the server thread.
+     * @param id The UUID of the player
+     * @return The player, or null if no player with that UUID is online
+     */
+    public static @Nullable Player getPlayer(@NotNull UUID id) {
+        return isInstalled() ? players.byId.get(id) : Bukkit.getPlayer(id);
+    }
+
+    /**
+     * Gets an online player by name, ignoring case, as seen by the given sender. If the sender is a player who cannot
+     * see the player (see {@link Player#canSee(Player)}), null is returned, just as if the player were offline.
+     * @param name The name of the player
+     * @param viewer The sender looking up the player, or null to consider every player visible
+     * @return The player, or null if no player with that name is online and visible to the viewer
+     */
+    public static @Nullable Player getPlayer(@NotNull String name, @Nullable CommandSender viewer) {
+        return visibleTo(getPlayer(name), viewer);
+    }
+
+    /**
+     * Gets an online player by UUID, as seen by the given sender. See
+     * {@link ServerLookup#getPlayer(String, CommandSender)}.
+     * @param id The UUID of the player
+     * @param viewer The sender looking up the player, or null to consider every player visible
+     * @return The player, or null if no player with that UUID is online and visible to the viewer
+     */
+    public static @Nullable Player getPlayer(@NotNull UUID id, @Nullable CommandSender viewer) {
+        return visibleTo(getPlayer(id), viewer);
+    }
+
+    private static Player visibleTo(Player player, CommandSender viewer) {
+        return player == null || !(viewer instanceof Player) || ((Player)viewer).canSee(player) ? player : null;
+    }
+
+    /**
+     * Gets a loaded world by name, ignoring case. If the indexes are not installed, Bukkit is queried instead, in which
+     * case this method must be called from the server thread.
+     * @param name The name of the world
+     * @return The world, or null if no world with that name is loaded
+     */
+    public static @Nullable World getWorld(@NotNull String name) {
+        return isInstalled() ? worlds.byName.get(name.toLowerCase(Locale.ROOT)) : Bukkit.getWorld(name);
+    }
+
+    /**
+     * Gets a loaded world by UUID. If the indexes are not installed, Bukkit is queried instead, in which case this
+     * method must be called from the server thread.
+     * @param id The UUID of the world
+     * @return The world, or null if no world with that UUID is loaded
+     */
+    public static @Nullable World getWorld(@NotNull UUID id) {
+        return isInstalled() ? worlds.byId.get(id) : Bukkit.getWorld(id);
+    }
+
+    /**
+     * Adds the names of online players starting with the given prefix, ignoring case, to the sink in alphabetical
+     * order, stopping once the sink is full. Nothing is added if the indexes are not installed.
+     * @param prefix The prefix
+     * @param sink The sink to add names to
+     */
+    public static void completePlayers(@NotNull String prefix, @NotNull CompletionSink sink) {
+        players.completeInto(prefix, sink, Player::getName, null);
+    }
+
+    /**
+     * Works like {@link ServerLookup#completePlayers(String, CompletionSink)}, but if the viewer is a player, only adds
+     * the players it can see (see {@link Player#canSee(Player)}), like Bukkit's own player completion. This calls
+     * canSee once for every player visited, and hidden players do not count towards the sink's limit, so more names
+     * may be visited. canSee reads the viewer's visibility state without synchronization; when called asynchronously,
+     * a player whose visibility is changing at the same moment may be filtered using its old visibility.
+     * @param prefix The prefix
+     * @param viewer The sender the names are completed for, or null to add every player
+     * @param sink The sink to add names to
+     */
+    public static void completePlayers(@NotNull String prefix, @Nullable CommandSender viewer,
+                                       @NotNull CompletionSink sink) {
+        if(viewer instanceof Player) {
+            Player player = (Player)viewer;
+            players.completeInto(prefix, sink, Player::getName, player::canSee);
+        }
+        else {
+            completePlayers(prefix, sink);
+        }
+    }
+
+    /**
+     * Adds the names of loaded worlds starting with the given prefix, ignoring case, to the sink in alphabetical
+     * order, stopping once the sink is full. Nothing is added if the indexes are not installed.
+     * @param prefix The prefix
+     * @param sink The sink to add names to
+     */
+    public static void completeWorlds(@NotNull String prefix, @NotNull CompletionSink sink) {
+        worlds.completeInto(prefix, sink, World::getName, null);
+    }
+
+    /**
+     * Returns the names of online players starting with the given prefix, ignoring case, in alphabetical order.
+     * @param prefix The prefix
+     * @return A new list of names, which is empty if the indexes are not installed
+     */
+    public static @NotNull List<String> playersWithPrefix(@NotNull String prefix) {
+        CompletionSink sink = new CompletionSink();
+        completePlayers(prefix, sink);
+        return sink.getCompletions();
+    }
+
+    /**
+     * Returns the names of online players starting with the given prefix that the viewer can see, ignoring case, in
+     * alphabetical order. See {@link ServerLookup#completePlayers(String, CommandSender, CompletionSink)}.
+     * @param prefix The prefix
+     * @param viewer The sender the names are completed for, or null to return every player
+     * @return A new list of names, which is empty if the indexes are not installed
+     */
+    public static @NotNull List<String> playersWithPrefix(@NotNull String prefix, @Nullable CommandSender viewer) {
+        CompletionSink sink = new CompletionSink();
+        completePlayers(prefix, viewer, sink);
+        return sink.getCompletions();
+    }
+
+    /**
+     * Returns the names of loaded worlds starting with the given prefix, ignoring case, in alphabetical order.
+     * @param prefix The prefix
+     * @return A new list of names, which is empty if the indexes are not installed
+     */
+    public static @NotNull List<String> worldsWithPrefix(@NotNull String prefix) {
+        CompletionSink sink = new CompletionSink();
+        completeWorlds(prefix, sink);
+        return sink.getCompletions();
+    }
+}
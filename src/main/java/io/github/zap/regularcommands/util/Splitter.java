@@ -0,0 +1,155 @@
+package io.github.zap.regularcommands.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable splitter that produces the same pieces as {@link String#split(String)}, one at a time. Delimiters without
+ * regex metacharacters (or a single escaped character) are searched for using {@link String#indexOf(String, int)};
+ * every other delimiter is compiled into a Pattern once, when the splitter is created.
+ */
+final class Splitter {
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final String literal; //null if the delimiter must be matched as a regex
+    private final Pattern pattern;
+
+    private Splitter(String literal, Pattern pattern) {
+        this.literal = literal;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Creates a new Splitter for the given delimiter, which is interpreted as a regex.
+     * @param delimiter The delimiter
+     * @return A new Splitter
+     * @throws java.util.regex.PatternSyntaxException if the delimiter is not a valid regex
+     */
+    static @NotNull Splitter of(@NotNull String delimiter) {
+        Objects.requireNonNull(delimiter, "delimiter cannot be null");
+
+        String literal = literalOf(delimiter);
+        return literal == null ? new Splitter(null, Pattern.compile(delimiter)) : new Splitter(literal, null);
+    }
+
+    private static String literalOf(String delimiter) {
+        if(delimiter.length() == 2 && delimiter.charAt(0) == '\\') { //an escaped metacharacter, such as \|
+            char escaped = delimiter.charAt(1);
+            return Character.isLetterOrDigit(escaped) || Character.isSurrogate(escaped) ? null :
+                    String.valueOf(escaped);
+        }
+
+        if(delimiter.isEmpty()) { //matches between every character
+            return null;
+        }
+
+        for(int i = 0; i < delimiter.length(); i++) {
+            if(METACHARACTERS.indexOf(delimiter.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+
+        return delimiter;
+    }
+
+    /**
+     * Starts splitting the given input.
+     * @param input The input to split
+     * @return A Cursor over the pieces of the input
+     */
+    @NotNull Cursor split(@NotNull String input) {
+        return new Cursor(input);
+    }
+
+    /**
+     * Iterates the pieces of a single input. Like {@link String#split(String)}, trailing empty pieces are dropped, a
+     * zero-width match at the start of the input does not produce a leading empty piece, and input that contains no
+     * delimiter produces exactly one piece, even if it is empty.
+     */
+    final class Cursor {
+        private final String input;
+        private final Matcher matcher; //null when splitting on a literal
+        private int index; //start of the next raw piece, or -1 once the last raw piece has been returned
+        private boolean matched;
+        private int pendingEmpty; //empty pieces that are known to be followed by a non-empty piece
+        private String pending;
+
+        private Cursor(String input) {
+            this.input = input;
+            this.matcher = pattern == null ? null : pattern.matcher(input);
+        }
+
+        /**
+         * Returns the next piece of the input.
+         * @return The next piece, or null if there are no more pieces
+         */
+        @Nullable String next() {
+            if(pendingEmpty > 0) {
+                pendingEmpty--;
+                return "";
+            }
+
+            if(pending != null) {
+                String piece = pending;
+                pending = null;
+                return piece;
+            }
+
+            String piece = nextRaw();
+            if(piece == null || !piece.isEmpty() || !matched) {
+                return piece;
+            }
+
+            //empty pieces are only kept if a non-empty piece follows them
+            int empty = 1;
+            while((piece = nextRaw()) != null && piece.isEmpty()) {
+                empty++;
+            }
+
+            if(piece == null) {
+                return null;
+            }
+
+            pendingEmpty = empty - 1;
+            pending = piece;
+            return "";
+        }
+
+        private String nextRaw() {
+            if(index < 0) {
+                return null;
+            }
+
+            if(matcher == null) {
+                int start = input.indexOf(literal, index);
+
+                if(start >= 0) {
+                    String piece = input.substring(index, start);
+                    index = start + literal.length();
+                    matched = true;
+                    return piece;
+                }
+            }
+            else {
+                while(matcher.find()) {
+                    if(index == 0 && matcher.end() == 0) { //zero-width match at the start of the input
+                        continue;
+                    }
+
+                    String piece = input.substring(index, matcher.start());
+                    index = matcher.end();
+                    matched = true;
+                    return piece;
+                }
+            }
+
+            String piece = matched ? input.substring(index) : input;
+            index = -1;
+            return piece;
+        }
+    }
+}
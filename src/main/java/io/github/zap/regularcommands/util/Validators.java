@@ -2,6 +2,7 @@ package io.github.zap.regularcommands.util;
 
 import io.github.zap.regularcommands.commands.DefaultKeys;
 import io.github.zap.regularcommands.validator.CommandValidator;
+import io.github.zap.regularcommands.validator.PrimitiveValidationStep;
 import io.github.zap.regularcommands.validator.ValidationResult;
 import net.kyori.adventure.text.Component;
 import org.bukkit.command.BlockCommandSender;
@@ -12,14 +13,15 @@ import org.bukkit.entity.Player;
 
 /**
  * Static utility class. Contains several default CommandValidators that can be used to check against who is running
- * the command (entity, player, console, or block).
+ * the command (entity, player, console, or block). They only depend on the sender, so they are cacheable (see
+ * {@link CommandValidator#isCacheable()}), and never box the arguments.
  */
 public final class Validators {
-    public static final CommandValidator<CommandSender, ?> ANY = new CommandValidator<>(
+    public static final CommandValidator<CommandSender, ?> ANY = sharedValidator(
             (context, arguments, previousData) ->
                     ValidationResult.of(true, null, context.getSender()));
 
-    public static final CommandValidator<Entity, ?> ENTITY_EXECUTOR = new CommandValidator<>(
+    public static final CommandValidator<Entity, ?> ENTITY_EXECUTOR = sharedValidator(
             (context, form, arguments) -> {
         CommandSender sender = context.getSender();
         if(sender instanceof Entity) {
@@ -29,7 +31,7 @@ public final class Validators {
         return ValidationResult.of(false, Component.translatable(DefaultKeys.ERROR_ENTITY_EXECUTOR.key()), null);
     });
 
-    public static final CommandValidator<Player, ?> PLAYER_EXECUTOR = new CommandValidator<>(
+    public static final CommandValidator<Player, ?> PLAYER_EXECUTOR = sharedValidator(
             (context, form, arguments) -> {
         CommandSender sender = context.getSender();
         if(context.getSender() instanceof Player) {
@@ -39,7 +41,7 @@ public final class Validators {
         return ValidationResult.of(false, Component.translatable(DefaultKeys.ERROR_PLAYER_EXECUTOR.key()), null);
     });
 
-    public static final CommandValidator<ConsoleCommandSender, ?> CONSOLE_EXECUTOR = new CommandValidator<>(
+    public static final CommandValidator<ConsoleCommandSender, ?> CONSOLE_EXECUTOR = sharedValidator(
             (context, form, arguments) -> {
         CommandSender sender = context.getSender();
         if(sender instanceof ConsoleCommandSender) {
@@ -49,7 +51,7 @@ public final class Validators {
         return ValidationResult.of(false, Component.translatable(DefaultKeys.ERROR_CONSOLE_EXECUTOR.key()), null);
     });
 
-    public static final CommandValidator<BlockCommandSender, ?> BLOCK_EXECUTOR = new CommandValidator<>(
+    public static final CommandValidator<BlockCommandSender, ?> BLOCK_EXECUTOR = sharedValidator(
             (context, form, arguments) -> {
         CommandSender sender = context.getSender();
         if(sender instanceof BlockCommandSender) {
@@ -58,4 +60,9 @@ public final class Validators {
 
         return ValidationResult.of(false, Component.translatable(DefaultKeys.ERROR_BLOCK_EXECUTOR.key()), null);
     });
+
+    //the steps only read the sender, so their results can be shared by every form and the arguments are never boxed
+    private static <T> CommandValidator<T, Object> sharedValidator(PrimitiveValidationStep<T, Object> step) {
+        return new CommandValidator<>(step, true);
+    }
 }
@@ -1,6 +1,7 @@
 package io.github.zap.regularcommands.validator;
 
 import io.github.zap.regularcommands.commands.Context;
+import io.github.zap.regularcommands.converter.Arguments;
 
 /**
  * Used to validate against the command context. Validators can 'depend' on the success of a single other validator,
@@ -14,44 +15,106 @@ import io.github.zap.regularcommands.commands.Context;
 public class CommandValidator<T, V> {
    private final ValidationStep<T, V> step;
    private final CommandValidator<? extends V, ?> depend;
+   private final boolean cacheable;
 
    /**
     * Creates a new CommandValidator instance that depends on the success of another validator, which will be tested
     * first. If it fails, this CommandValidator will not execute.
+    *
+    * A cacheable validator runs at most once per dispatch, even if several matching forms use it (see
+    * {@link ValidationCache}). Only validators whose result depends solely on the sender and the raw arguments, and
+    * not on the form being validated ({@link Context#getForm()}) or its converted arguments, should be cacheable. A
+    * validator is only cached if the validator it depends on is cacheable too.
     * @param step The ValidationStep used by this validator. This is the code that will perform the actual, contextual
     *             testing
     * @param depend The CommandValidator whose success determines whether this instances gets tested or not
+    * @param cacheable Whether the result of this validator may be shared by every form validated during a dispatch
     */
-   public CommandValidator(ValidationStep<T, V> step, CommandValidator<? extends V, ?> depend) {
+   public CommandValidator(ValidationStep<T, V> step, CommandValidator<? extends V, ?> depend, boolean cacheable) {
       this.step = step;
       this.depend = depend;
+      this.cacheable = cacheable;
    }
 
    /**
-    * Creates a new CommandValidator from this CommandValidator that depends on the given CommandValidator.
+    * Creates a new CommandValidator instance that depends on the success of another validator, which will be tested
+    * first. If it fails, this CommandValidator will not execute. The validator is not cacheable.
+    * @param step The ValidationStep used by this validator. This is the code that will perform the actual, contextual
+    *             testing
+    * @param depend The CommandValidator whose success determines whether this instances gets tested or not
+    */
+   public CommandValidator(ValidationStep<T, V> step, CommandValidator<? extends V, ?> depend) {
+      this(step, depend, false);
+   }
+
+   /**
+    * Creates a new CommandValidator from this CommandValidator that depends on the given CommandValidator. The new
+    * validator is cacheable if this one was declared cacheable.
     * @param depend The CommandValidator the new validator will depend on
     * @return The new validator
     */
    public CommandValidator<T, V> from(CommandValidator<? extends V, ?> depend) {
-      return new CommandValidator<>(step, depend);
+      return new CommandValidator<>(step, depend, cacheable);
    }
 
    /**
     * Creates a new CommandValidator instance, which does not depend on any other validators.
     * @param step The ValidationStep used by this validator
+    * @param cacheable Whether the result of this validator may be shared by every form validated during a dispatch
+    */
+   public CommandValidator(ValidationStep<T, V> step, boolean cacheable) {
+      this(step, null, cacheable);
+   }
+
+   /**
+    * Creates a new CommandValidator instance, which does not depend on any other validators. The validator is not
+    * cacheable.
+    * @param step The ValidationStep used by this validator
     */
    public CommandValidator(ValidationStep<T, V> step) {
-      this(step, null);
+      this(step, null, false);
+   }
+
+   /**
+    * Tests whether the result of this validator is shared by every form validated during a dispatch.
+    * @return true if this validator and the validator it depends on were declared cacheable, false otherwise
+    */
+   public boolean isCacheable() {
+      return cacheable && (depend == null || depend.isCacheable());
    }
 
    /**
     * Runs validation, given a context and an Object array of arguments. Validators chained last are checked first, and
     * earlier validators will not be executed if later validators fail.
+    *
+    * If this validator is cacheable and the context has a {@link ValidationCache}, it runs at most once during the
+    * dispatch; later calls return the stored result. Cacheable validators that others depend on are shared the same
+    * way.
     * @param context The validation context
     * @param arguments The command arguments
     * @return A ValidationResult object indicating the success or failure of this validator.
     */
    public ValidationResult<T> validate(Context context, Object[] arguments) {
+      return validate(context, Arguments.of(arguments));
+   }
+
+   /**
+    * Runs validation like {@link CommandValidator#validate(Context, Object[])}, but with unboxed arguments. They are
+    * only boxed for steps that are not {@link PrimitiveValidationStep}s, and at most once.
+    * @param context The validation context
+    * @param arguments The command arguments
+    * @return A ValidationResult object indicating the success or failure of this validator.
+    */
+   public ValidationResult<T> validate(Context context, Arguments arguments) {
+      ValidationCache cache = context.getValidationCache();
+      if(cache == null || !isCacheable()) {
+         return validateUncached(context, arguments);
+      }
+
+      return cache.computeIfAbsent(this, () -> validateUncached(context, arguments));
+   }
+
+   private ValidationResult<T> validateUncached(Context context, Arguments arguments) {
       if(depend == null) {
          return step.validate(context, arguments, null);
       }
@@ -64,4 +127,4 @@ public class CommandValidator<T, V> {
 
       return ValidationResult.of(false, result.getErrorMessage(), null);
    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package io.github.zap.regularcommands.validator;
+
+import io.github.zap.regularcommands.commands.Context;
+import io.github.zap.regularcommands.converter.Arguments;
+
+/**
+ * A ValidationStep that receives the command arguments as {@link Arguments}, so values produced by primitive
+ * converters are not boxed. Steps that do not read the arguments at all should also implement this interface.
+ * @param <T> The type of data this ValidationResult may return
+ * @param <V> The type of data that was produced by a previously chained validator
+ */
+@FunctionalInterface
+public interface PrimitiveValidationStep<T, V> extends ValidationStep<T, V> {
+    /**
+     * Defines a specific validation step.
+     * @param context The command context
+     * @param arguments The command arguments
+     * @return A ValidationResult object containing the result of this validation
+     */
+    @Override
+    ValidationResult<T> validate(Context context, Arguments arguments, V previousData);
+
+    /**
+     * Wraps the arguments and calls {@link PrimitiveValidationStep#validate(Context, Arguments, Object)}.
+     * @param context The command context
+     * @param arguments The command arguments
+     * @return A ValidationResult object containing the result of this validation
+     */
+    @Override
+    default ValidationResult<T> validate(Context context, Object[] arguments, V previousData) {
+        return validate(context, Arguments.of(arguments), previousData);
+    }
+}
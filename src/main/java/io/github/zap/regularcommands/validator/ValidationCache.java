@@ -0,0 +1,83 @@
+package io.github.zap.regularcommands.validator;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the results of cacheable CommandValidators (see {@link CommandValidator#isCacheable()}) during a single
+ * dispatch, so that a validator shared by several matching forms (ex.
+ * {@link io.github.zap.regularcommands.util.Validators#PLAYER_EXECUTOR}) runs only once. A cache must only be used for
+ * one dispatch, whose raw arguments are the same for every form, so results are keyed by the identity of the
+ * validator alone. This includes validators that others depend on, so a shared dependency is reused even if the
+ * validators depending on it differ.
+ *
+ * Instances are thread-safe, but a thread never waits for a validator that another thread is still running: it runs
+ * the validator itself, without storing the result. This keeps the server thread from blocking on work done by an
+ * executor. {@link io.github.zap.regularcommands.commands.CommandManager} only shares a cache between forms validated
+ * on the server thread, so there every cacheable validator runs at most once.
+ */
+public final class ValidationCache {
+    private final Map<CommandValidator<?, ?>, CompletableFuture<ValidationResult<?>>> results = new IdentityHashMap<>();
+
+    /**
+     * Returns the stored result of a validator, or runs the validation and stores its result. If another thread is
+     * still running the validation, it is run again by this thread and its result is not stored.
+     * @param validator The validator
+     * @param validation Runs the validator
+     * @param <T> The type of data produced by the validator
+     * @return The result of the validator
+     */
+    @SuppressWarnings("unchecked")
+    <T> @NotNull ValidationResult<T> computeIfAbsent(@NotNull CommandValidator<T, ?> validator,
+                                                     @NotNull Supplier<ValidationResult<T>> validation) {
+        CompletableFuture<ValidationResult<?>> future;
+        boolean owner = false;
+
+        synchronized(this) {
+            future = results.get(validator);
+
+            if(future == null) {
+                future = new CompletableFuture<>();
+                results.put(validator, future);
+                owner = true;
+            }
+        }
+
+        if(owner) { //validation runs outside of the lock, so other validators are not held up
+            try {
+                ValidationResult<T> result = validation.get();
+                future.complete(result);
+                return result;
+            }
+            catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        if(!future.isDone()) { //never wait on another thread, which may be waiting on this one
+            return validation.get();
+        }
+
+        try {
+            return (ValidationResult<T>)future.join();
+        }
+        catch (CompletionException e) { //rethrow the failure of the thread that ran the validator
+            Throwable cause = e.getCause();
+
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            else if(cause instanceof Error) {
+                throw (Error)cause;
+            }
+
+            throw e;
+        }
+    }
+}
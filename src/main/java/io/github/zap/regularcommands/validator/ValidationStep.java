@@ -1,6 +1,7 @@
 package io.github.zap.regularcommands.validator;
 
 import io.github.zap.regularcommands.commands.Context;
+import io.github.zap.regularcommands.converter.Arguments;
 
 /**
  * Functional interface defining an object that may test command context.
@@ -15,4 +16,15 @@ public interface ValidationStep<T, V> {
      * @return A ValidationResult object containing the result of this validation
      */
     ValidationResult<T> validate(Context context, Object[] arguments, V previousData);
+
+    /**
+     * Runs this validation step with unboxed arguments. By default, the arguments are boxed and passed to
+     * {@link ValidationStep#validate(Context, Object[], Object)}; {@link PrimitiveValidationStep} avoids this.
+     * @param context The command context
+     * @param arguments The command arguments
+     * @return A ValidationResult object containing the result of this validation
+     */
+    default ValidationResult<T> validate(Context context, Arguments arguments, V previousData) {
+        return validate(context, arguments.toArray(), previousData);
+    }
 }